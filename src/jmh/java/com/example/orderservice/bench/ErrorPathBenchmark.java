@@ -0,0 +1,81 @@
+package com.example.orderservice.bench;
+
+import com.example.orderservice.controller.ApiErrors;
+import com.example.orderservice.exception.DomainException;
+import com.example.orderservice.exception.PaymentConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A rejected payment from throw to response body: the old way (exception filling in its stack trace
+ * through {@code depth} frames, then a {@code Map.of} body through Jackson) versus a stackless
+ * {@link DomainException} and the pre-built {@link ApiErrors} body. Spring MVC and Tomcat put roughly a
+ * hundred frames between the service and the dispatcher. Run with {@code -prof gc} to compare
+ * gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"100"})
+    int depth;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] stackTraceAndMapBody() throws IOException {
+        try {
+            throwLegacy(depth, 42L);
+            throw new AssertionError();
+        } catch (LegacyConflictException e) {
+            return objectMapper.writeValueAsBytes(Map.of("error", "PAYMENT_EXISTS", "message", e.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessAndPrebuiltBody() {
+        try {
+            throwDomain(depth, 42L);
+            throw new AssertionError();
+        } catch (DomainException e) {
+            return ApiErrors.body(e.getErrorCode(), e.getMessage());
+        }
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static void throwLegacy(int depth, Long orderId) {
+        if (depth == 0) {
+            throw new LegacyConflictException(orderId);
+        }
+        throwLegacy(depth - 1, orderId);
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static void throwDomain(int depth, Long orderId) {
+        if (depth == 0) {
+            throw new PaymentConflictException(orderId);
+        }
+        throwDomain(depth - 1, orderId);
+    }
+
+    /** PaymentConflictException as it was: a plain RuntimeException with a stack trace. */
+    static class LegacyConflictException extends RuntimeException {
+        LegacyConflictException(Long orderId) {
+            super("A payment already exists for order id: " + orderId);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.orderservice.bench;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.model.PaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the API models with the same ObjectMapper defaults Spring MVC uses,
+ * plus the message-converter write a controller response goes through (without MockMvc).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private MappingJackson2HttpMessageConverter converter;
+    private Order order;
+    private Payment payment;
+    private byte[] orderJson;
+    private byte[] paymentRequestJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        converter = new MappingJackson2HttpMessageConverter(objectMapper);
+
+        order = new Order();
+        order.setId(42L);
+        order.setCustomerName("Jane Doe");
+        order.setItems("Laptop, Mouse, Keyboard");
+        order.setTotalAmount(Money.parse("1549.99"));
+        order.setStatus(Order.OrderStatus.PLACED);
+        order.setCreatedAt(LocalDateTime.of(2026, 2, 14, 10, 30));
+        order.setVersion(3L);
+
+        payment = new Payment();
+        payment.setId(7L);
+        payment.setOrderId(42L);
+        payment.setAmount(Money.parse("1549.99"));
+        payment.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+        payment.setStatus(Payment.PaymentStatus.SUCCESS);
+        payment.setTransactionReference("TXN-ABC-12345");
+        payment.setPaidAt(LocalDateTime.of(2026, 2, 14, 10, 31));
+
+        PaymentRequest request = new PaymentRequest();
+        request.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+        request.setAmount(Money.parse("1549.99"));
+        request.setTransactionReference("TXN-ABC-12345");
+
+        orderJson = objectMapper.writeValueAsBytes(order);
+        paymentRequestJson = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws IOException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order deserializeOrder() throws IOException {
+        return objectMapper.readValue(orderJson, Order.class);
+    }
+
+    @Benchmark
+    public byte[] serializePayment() throws IOException {
+        return objectMapper.writeValueAsBytes(payment);
+    }
+
+    @Benchmark
+    public PaymentRequest deserializePaymentRequest() throws IOException {
+        return objectMapper.readValue(paymentRequestJson, PaymentRequest.class);
+    }
+
+    @Benchmark
+    public MockHttpOutputMessage converterWritePayment() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(payment, MediaType.APPLICATION_JSON, message);
+        return message;
+    }
+}
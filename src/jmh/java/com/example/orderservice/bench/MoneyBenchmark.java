@@ -0,0 +1,91 @@
+package com.example.orderservice.bench;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.model.PaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and checking a payment amount as {@link Money} versus the boxed {@code Double} (and the
+ * usual {@code BigDecimal} alternative) it replaced. Run with {@code -prof gc} and compare
+ * gc.alloc.rate.norm: the Money paths allocate only the Money (and, for JSON, the request object).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final String AMOUNT = "1549.99";
+
+    private ObjectMapper objectMapper;
+    private char[] amountChars;
+    private byte[] requestJson;
+    private Double orderTotalDouble;
+    private Money orderTotal;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        amountChars = AMOUNT.toCharArray();
+        requestJson = ("{\"paymentMethod\":\"CREDIT_CARD\",\"amount\":" + AMOUNT
+                + ",\"transactionReference\":\"TXN-ABC-12345\"}").getBytes(StandardCharsets.UTF_8);
+        orderTotalDouble = Double.valueOf(AMOUNT);
+        orderTotal = Money.parse(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean validateDouble() {
+        // What Jackson did for a Double field: materialise the text, parse, box; then the epsilon check.
+        Double amount = Double.valueOf(new String(amountChars));
+        return Math.abs(amount - orderTotalDouble) < 0.001;
+    }
+
+    @Benchmark
+    public boolean validateBigDecimal() {
+        BigDecimal amount = new BigDecimal(amountChars, 0, amountChars.length);
+        return amount.movePointRight(2).longValueExact() == orderTotal.minor();
+    }
+
+    @Benchmark
+    public boolean validateMoney() {
+        Money amount = Money.ofMinor(Money.parseMinor(amountChars, 0, amountChars.length, 2));
+        return amount.equals(orderTotal);
+    }
+
+    @Benchmark
+    public DoublePaymentRequest deserializeRequestDouble() throws IOException {
+        return objectMapper.readValue(requestJson, DoublePaymentRequest.class);
+    }
+
+    @Benchmark
+    public PaymentRequest deserializeRequestMoney() throws IOException {
+        return objectMapper.readValue(requestJson, PaymentRequest.class);
+    }
+
+    /** PaymentRequest as it was before amounts became {@link Money}. */
+    public static class DoublePaymentRequest {
+
+        private Payment.PaymentMethod paymentMethod;
+        private Double amount;
+        private String transactionReference;
+
+        public Payment.PaymentMethod getPaymentMethod() { return paymentMethod; }
+        public void setPaymentMethod(Payment.PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+        public Double getAmount() { return amount; }
+        public void setAmount(Double amount) { this.amount = amount; }
+
+        public String getTransactionReference() { return transactionReference; }
+        public void setTransactionReference(String transactionReference) { this.transactionReference = transactionReference; }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.orderservice.bench;
+
+import com.example.orderservice.OrderServiceApplication;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.model.PaymentRequest;
+import com.example.orderservice.service.OrderService;
+import com.example.orderservice.service.PaymentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer write paths against the in-memory H2 datasource. Every payment needs a fresh
+ * PLACED order, so the payment benchmarks include order creation; {@link #createOrder} is the
+ * baseline to subtract.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private PaymentService paymentService;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        paymentService = context.getBean(PaymentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOrder {
+        Long orderId;
+        int revision;
+
+        @Setup(Level.Trial)
+        public void create(ServiceBenchmark benchmark) {
+            orderId = benchmark.orderService.createOrder(newOrder()).getId();
+        }
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(newOrder());
+    }
+
+    @Benchmark
+    public Payment createOrderAndPay() {
+        Order order = orderService.createOrder(newOrder());
+        return paymentService.createPayment(order.getId(), paymentRequest());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Payment createOrderAndPayContended() {
+        return createOrderAndPay();
+    }
+
+    @Benchmark
+    public Payment createPayAndRefund() {
+        Order order = orderService.createOrder(newOrder());
+        paymentService.createPayment(order.getId(), paymentRequest());
+        return paymentService.refundPayment(order.getId());
+    }
+
+    @Benchmark
+    public Order updateOrder(ThreadOrder state) {
+        Order details = newOrder();
+        details.setCustomerName("Customer " + (state.revision++ & 7));
+        return orderService.updateOrder(state.orderId, details).orElseThrow();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Order updateOrderContended(ThreadOrder state) {
+        return updateOrder(state);
+    }
+
+    private static Order newOrder() {
+        Order order = new Order();
+        order.setCustomerName("Bench Customer");
+        order.setItems("Widget, Gadget");
+        order.setTotalAmount(Money.parse("149.99"));
+        return order;
+    }
+
+    private static PaymentRequest paymentRequest() {
+        PaymentRequest request = new PaymentRequest();
+        request.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+        request.setAmount(Money.parse("149.99"));
+        request.setTransactionReference("TXN-BENCH");
+        return request;
+    }
+}
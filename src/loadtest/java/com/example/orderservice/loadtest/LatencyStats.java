@@ -0,0 +1,116 @@
+package com.example.orderservice.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms (microseconds, 3 significant digits) and failure counts. Latency
+ * is measured from a request's intended start, so time spent waiting behind a slow server or for a
+ * free client counts against it.
+ */
+class LatencyStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Histogram all = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    void record(String operation, long latencyNanos, String failure) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 1), HIGHEST_TRACKABLE_MICROS);
+        Operation stats = operations.computeIfAbsent(operation, name -> new Operation());
+        stats.histogram.recordValue(micros);
+        all.recordValue(micros);
+        if (failure != null) {
+            stats.failures.computeIfAbsent(failure, f -> new LongAdder()).increment();
+        }
+    }
+
+    /** Prints the summary table and returns the SLO violations, empty when the run passed. */
+    List<String> report(LoadTestConfig config, Duration measured, PrintStream out) {
+        double seconds = measured.toNanos() / 1e9;
+        out.printf("%n%-16s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Map<String, Operation> sorted = new TreeMap<>(operations);
+        List<String> violations = new ArrayList<>();
+        long totalFailures = 0;
+        for (Map.Entry<String, Operation> entry : sorted.entrySet()) {
+            Operation op = entry.getValue();
+            long failures = op.failureCount();
+            totalFailures += failures;
+            printRow(out, entry.getKey(), op.histogram, failures, seconds);
+            checkLatency(config, entry.getKey(), op.histogram, violations);
+        }
+        printRow(out, "all", all, totalFailures, seconds);
+        checkLatency(config, "all", all, violations);
+
+        sorted.forEach((name, op) -> op.failures.forEach((failure, count) ->
+                out.printf("  %s failed with %s: %d%n", name, failure, count.sum())));
+        long total = all.getTotalCount();
+        double errorRate = total == 0 ? 0 : (double) totalFailures / total;
+        if (total == 0) {
+            violations.add("no requests completed");
+        } else if (errorRate > config.sloErrorRate()) {
+            violations.add(String.format("error rate %.4f%% > %.4f%%", errorRate * 100, config.sloErrorRate() * 100));
+        }
+        return violations;
+    }
+
+    /** Writes each operation's full percentile distribution as {@code <operation>.hgrm} for plotting. */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Histogram> histograms = new TreeMap<>();
+        operations.forEach((name, op) -> histograms.put(name, op.histogram));
+        histograms.put("all", all);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream file = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().outputPercentileDistribution(file, 1000.0);
+            }
+        }
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long failures, double seconds) {
+        out.printf("%-16s %9d %9d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), failures, histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static void checkLatency(LoadTestConfig config, String name, Histogram histogram, List<String> violations) {
+        check(name, "p50", histogram.getValueAtPercentile(50), config.sloP50(), violations);
+        check(name, "p99", histogram.getValueAtPercentile(99), config.sloP99(), violations);
+        check(name, "p99.9", histogram.getValueAtPercentile(99.9), config.sloP999(), violations);
+    }
+
+    private static void check(String name, String percentile, long micros, Duration slo, List<String> violations) {
+        if (slo != null && micros > TimeUnit.NANOSECONDS.toMicros(slo.toNanos())) {
+            violations.add(String.format("%s %s %.2f ms > %d ms", name, percentile, millis(micros), slo.toMillis()));
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Operation {
+        final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        long failureCount() {
+            return failures.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.orderservice.loadtest;
+
+import com.example.orderservice.OrderServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test against an in-process instance on a random port with an in-memory H2
+ * database. Arrivals are scheduled at a fixed {@code rate} whether or not earlier requests have
+ * finished; at most {@code clients} run at once and the rest wait, with the wait counted in their
+ * latency (no coordinated omission). Prints throughput and p50/p99/p99.9 per operation, writes
+ * HdrHistogram distributions to target/loadtest and exits with status 1 when an SLO is violated.
+ *
+ * <pre>
+ *     mvn -Ploadtest test-compile exec:exec -Dloadtest.args="rate=500 duration=60s slo.p99=50ms"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        List<String> violations;
+        try (ConfigurableApplicationContext context = start(config);
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(config.requestTimeout())
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LatencyStats stats = new LatencyStats();
+            Workload workload = new Workload(client, URI.create("http://localhost:" + port), config, stats);
+            System.out.printf("Seeding %d hot orders on port %d%n", config.hotKeys(), port);
+            workload.seed();
+            System.out.printf("Warm-up %s, then measuring %s at %.0f arrivals/s with up to %d clients%n",
+                    config.warmup(), config.duration(), config.rate(), config.clients());
+            long lagNanos = drive(config, workload);
+            if (lagNanos > TimeUnit.MILLISECONDS.toNanos(10)) {
+                System.out.printf("Warning: the generator fell up to %.1f ms behind schedule; the box may be saturated%n",
+                        lagNanos / 1e6);
+            }
+            violations = stats.report(config, config.duration(), System.out);
+            stats.writeDistributions(Path.of("target", "loadtest"));
+        }
+        if (violations.isEmpty()) {
+            System.out.println("\nAll SLOs met");
+            System.exit(0);
+        }
+        System.out.println("\nSLO violations:");
+        violations.forEach(violation -> System.out.println("  " + violation));
+        System.exit(1);
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestConfig config) {
+        // As command-line arguments so they beat application.properties; the user's come last and win.
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.h2.console.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--admission.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1"));
+        args.addAll(config.applicationArgs());
+        return new SpringApplicationBuilder(OrderServiceApplication.class).run(args.toArray(String[]::new));
+    }
+
+    /** Dispatches arrivals on schedule and waits for them to finish; returns the worst dispatch lag. */
+    private static long drive(LoadTestConfig config, Workload workload) {
+        Semaphore clients = new Semaphore(config.clients());
+        double intervalNanos = 1e9 / config.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        long worstLag = 0;
+        // Closing the executor waits for every arrival; each request is bounded by request-timeout.
+        try (ExecutorService arrivals = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long arrival = 0; ; arrival++) {
+                long intended = start + (long) (arrival * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                long now;
+                while ((now = System.nanoTime()) < intended) {
+                    LockSupport.parkNanos(intended - now);
+                }
+                boolean record = intended >= measureFrom;
+                if (record) {
+                    worstLag = Math.max(worstLag, now - intended);
+                }
+                arrivals.execute(() -> {
+                    clients.acquireUninterruptibly();
+                    try {
+                        workload.arrive(intended, record);
+                    } finally {
+                        clients.release();
+                    }
+                });
+            }
+        }
+        return worstLag;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.orderservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load-test settings, given on the command line as {@code key=value} pairs (see the loadtest profile
+ * in pom.xml). Arguments starting with {@code --} are passed through to the application, e.g.
+ * {@code --payments.processing.mode=async}. An SLO left unset is reported but not enforced.
+ */
+record LoadTestConfig(double rate,
+                      Duration warmup,
+                      Duration duration,
+                      int clients,
+                      int hotKeys,
+                      double skew,
+                      double checkoutRatio,
+                      double refundRatio,
+                      Duration requestTimeout,
+                      Duration sloP50,
+                      Duration sloP99,
+                      Duration sloP999,
+                      double sloErrorRate,
+                      List<String> applicationArgs) {
+
+    static LoadTestConfig parse(String[] args) {
+        double rate = 200;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        int clients = 256;
+        int hotKeys = 1000;
+        double skew = 1.1;
+        double checkoutRatio = 0.2;
+        double refundRatio = 0.25;
+        Duration requestTimeout = Duration.ofSeconds(5);
+        Duration sloP50 = null;
+        Duration sloP99 = Duration.ofMillis(100);
+        Duration sloP999 = Duration.ofMillis(500);
+        double sloErrorRate = 0.001;
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "rate" -> rate = Double.parseDouble(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "clients" -> clients = Integer.parseInt(value);
+                case "hot-keys" -> hotKeys = Integer.parseInt(value);
+                case "skew" -> skew = Double.parseDouble(value);
+                case "checkout-ratio" -> checkoutRatio = Double.parseDouble(value);
+                case "refund-ratio" -> refundRatio = Double.parseDouble(value);
+                case "request-timeout" -> requestTimeout = DurationStyle.detectAndParse(value);
+                case "slo.p50" -> sloP50 = durationOrNull(value);
+                case "slo.p99" -> sloP99 = durationOrNull(value);
+                case "slo.p999" -> sloP999 = durationOrNull(value);
+                case "slo.error-rate" -> sloErrorRate = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown load-test setting: " + key);
+            }
+        }
+        if (rate <= 0 || clients <= 0 || hotKeys <= 0 || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("rate, clients, hot-keys and duration must be positive");
+        }
+        if (checkoutRatio < 0 || checkoutRatio > 1 || refundRatio < 0 || refundRatio > 1) {
+            throw new IllegalArgumentException("checkout-ratio and refund-ratio must be between 0 and 1");
+        }
+        return new LoadTestConfig(rate, warmup, duration, clients, hotKeys, skew, checkoutRatio, refundRatio,
+                requestTimeout, sloP50, sloP99, sloP999, sloErrorRate, List.copyOf(applicationArgs));
+    }
+
+    private static Duration durationOrNull(String value) {
+        return value.isBlank() || value.equals("none") ? null : DurationStyle.detectAndParse(value);
+    }
+}
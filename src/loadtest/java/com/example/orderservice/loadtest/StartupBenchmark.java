@@ -0,0 +1,121 @@
+package com.example.orderservice.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching a JVM to the first successful API request ({@code GET /api/orders?size=1}),
+ * for the plain jar and for the fast-start build ({@code mvn -Pfaststart package}), each started
+ * {@code runs} times in a fresh process. Build first, then:
+ *
+ * <pre>
+ *     mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.orderservice.loadtest.StartupBenchmark \
+ *         -Dloadtest.args="runs=5"
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path FASTSTART = TARGET.resolve("faststart");
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(3);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        for (String arg : args) {
+            if (arg.startsWith("runs=")) {
+                runs = Integer.parseInt(arg.substring("runs=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Path plainJar = jar(TARGET);
+        Path fastJar = jar(FASTSTART);
+        Path archive = FASTSTART.resolve("application.jsa");
+        if (plainJar == null || fastJar == null || !Files.exists(archive)) {
+            throw new IllegalStateException("Build the jars first: mvn -Pfaststart package -DskipTests");
+        }
+
+        List<String> baseline = List.of(java, "-jar", plainJar.toString());
+        List<String> fastStart = List.of(java, "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=faststart", "-jar", fastJar.toString());
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            report("baseline", measure(client, baseline, runs));
+            report("faststart", measure(client, fastStart, runs));
+        }
+    }
+
+    private static long[] measure(HttpClient client, List<String> command, int runs) throws Exception {
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            millis[run] = timeToFirstRequest(client, command);
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static long timeToFirstRequest(HttpClient client, List<String> command) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> args = new ArrayList<>(command);
+        args.addAll(List.of("--server.port=" + port, "--spring.main.banner-mode=off", "--logging.level.root=WARN"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders?size=1"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(args).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            while (System.nanoTime() - start < START_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Exited with " + process.exitValue() + ": " + String.join(" ", args));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful request within " + START_TIMEOUT + ": " + String.join(" ", args));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void report(String name, long[] millis) {
+        System.out.printf("%-10s time to first request over %d runs: min %d ms, median %d ms, max %d ms%n",
+                name, millis.length, millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+    }
+
+    private static Path jar(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("order-service-.*\\.jar"))
+                    .findFirst().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.orderservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The request mix. Each arrival is either a checkout session (create order, pay, read it back and,
+ * for {@code refund-ratio} of them, refund) or a read of one of {@code hot-keys} paid orders or their
+ * payments, picked with a Zipf({@code skew}) distribution so a few keys take most of the reads.
+ * Requests are spread over {@value #CLIENT_IDS} {@code X-Client-Id}s, so the service's per-client
+ * rate limits see several integrators rather than one; LoadTest trusts the header from loopback.
+ */
+class Workload {
+
+    private static final int CLIENT_IDS = 32;
+    private static final String AMOUNT = "149.99";
+    private static final String ORDER_BODY =
+            "{\"customerName\":\"Load Customer %d\",\"items\":\"Widget, Gadget\",\"totalAmount\":" + AMOUNT + "}";
+    private static final String PAYMENT_BODY =
+            "{\"paymentMethod\":\"CREDIT_CARD\",\"amount\":" + AMOUNT + ",\"transactionReference\":\"TXN-LOAD-%d\"}";
+
+    private final HttpClient client;
+    private final URI base;
+    private final LoadTestConfig config;
+    private final LatencyStats stats;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long[] hotIds = new long[0];
+    private double[] hotCdf = new double[0];
+
+    Workload(HttpClient client, URI base, LoadTestConfig config, LatencyStats stats) {
+        this.client = client;
+        this.base = base;
+        this.config = config;
+        this.stats = stats;
+    }
+
+    /** Creates and pays the hot orders that reads are drawn from; fails fast if the service is not answering. */
+    void seed() throws IOException, InterruptedException {
+        hotIds = new long[config.hotKeys()];
+        for (int i = 0; i < hotIds.length; i++) {
+            HttpResponse<String> order = send(post("/api/orders", ORDER_BODY.formatted(i)));
+            if (order.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed: HTTP " + order.statusCode() + " " + order.body());
+            }
+            hotIds[i] = objectMapper.readTree(order.body()).get("id").asLong();
+            HttpResponse<String> payment = send(post(payments(hotIds[i]), PAYMENT_BODY.formatted(i)));
+            if (payment.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Seeding failed: HTTP " + payment.statusCode() + " " + payment.body());
+            }
+        }
+        hotCdf = zipfCdf(hotIds.length, config.skew());
+    }
+
+    /** Runs one arrival; latencies are recorded only when {@code record} is set (i.e. after warm-up). */
+    void arrive(long intendedStartNanos, boolean record) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < config.checkoutRatio()) {
+            checkout(intendedStartNanos, record, random);
+        } else {
+            long id = hotIds[pickHot(random.nextDouble())];
+            if (random.nextBoolean()) {
+                call("hot.order.get", get("/api/orders/" + id), intendedStartNanos, record);
+            } else {
+                call("hot.payment.get", get(payments(id)), intendedStartNanos, record);
+            }
+        }
+    }
+
+    private void checkout(long intendedStartNanos, boolean record, ThreadLocalRandom random) {
+        long n = random.nextLong(Long.MAX_VALUE);
+        HttpResponse<String> order = call("order.create", post("/api/orders", ORDER_BODY.formatted(n)),
+                intendedStartNanos, record);
+        if (order == null || order.statusCode() != 201) {
+            return;
+        }
+        long id;
+        try {
+            id = objectMapper.readTree(order.body()).get("id").asLong();
+        } catch (IOException e) {
+            return;
+        }
+        HttpResponse<String> payment = call("payment.create", post(payments(id), PAYMENT_BODY.formatted(n)),
+                System.nanoTime(), record);
+        call("order.get", get("/api/orders/" + id), System.nanoTime(), record);
+        // A 202 (async mode) payment is still PENDING and cannot be refunded yet.
+        if (payment != null && payment.statusCode() == 201 && random.nextDouble() < config.refundRatio()) {
+            call("payment.refund", post(payments(id) + "/refund", ""), System.nanoTime(), record);
+        }
+    }
+
+    /** Sends and records one request; returns null when it failed without a response. */
+    private HttpResponse<String> call(String operation, HttpRequest request, long startNanos, boolean record) {
+        HttpResponse<String> response = null;
+        String failure;
+        try {
+            response = send(request);
+            failure = response.statusCode() / 100 == 2 ? null : "HTTP_" + response.statusCode();
+        } catch (HttpTimeoutException e) {
+            failure = "TIMEOUT";
+        } catch (IOException e) {
+            failure = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (record) {
+            stats.record(operation, System.nanoTime() - startNanos, failure);
+        }
+        return response;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(config.requestTimeout())
+                .header("X-Client-Id", "loadtest-" + ThreadLocalRandom.current().nextInt(CLIENT_IDS));
+    }
+
+    private static String payments(long orderId) {
+        return "/api/orders/" + orderId + "/payments";
+    }
+
+    private int pickHot(double u) {
+        int index = Arrays.binarySearch(hotCdf, u);
+        return Math.min(index >= 0 ? index : -index - 1, hotCdf.length - 1);
+    }
+
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, skew);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.orderservice.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests in flight at a limit that follows observed latency (AIMD): after every
+ * {@code window} latency samples, an average above {@code targetNanos} cuts the limit by
+ * {@code backoff}; otherwise, if at least half the limit was in use, it grows by one. The limit
+ * stays within [{@code minLimit}, {@code maxLimit}].
+ *
+ * <p>Callers ask for a share of the limit, so lower-priority work is turned away while some headroom
+ * is still left for the higher-priority work.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final int window;
+    private final double backoff;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // guarded by this
+    private int samples;
+    private long sampleNanos;
+    private int peakInFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetNanos,
+                                      int window, double backoff) {
+        if (minLimit < 1 || minLimit > maxLimit || window < 1 || backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("Need 1 <= min-limit <= max-limit, window >= 1 and 0 < backoff < 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetNanos;
+        this.window = window;
+        this.backoff = backoff;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /** Admits one request if fewer than {@code share} of the limit are in flight; pair with {@link #release}. */
+    public boolean tryAcquire(double share) {
+        int cap = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= cap) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Releases an admitted request, feeding its latency to the limit unless {@code latencyNanos} is negative. */
+    public void release(long latencyNanos) {
+        int released = inFlight.getAndDecrement();
+        if (latencyNanos >= 0) {
+            sample(latencyNanos, released);
+        }
+    }
+
+    private synchronized void sample(long latencyNanos, int inFlightBefore) {
+        samples++;
+        sampleNanos += latencyNanos;
+        peakInFlight = Math.max(peakInFlight, inFlightBefore);
+        if (samples < window) {
+            return;
+        }
+        int current = limit;
+        if (sampleNanos / samples > targetNanos) {
+            limit = Math.max(minLimit, (int) (current * backoff));
+        } else if (peakInFlight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+        samples = 0;
+        sampleNanos = 0;
+        peakInFlight = 0;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.controller.ApiErrors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control for the API, ahead of any controller or database work. Each client has a token
+ * bucket and is answered 429 when it runs dry. A client is the authenticated principal, else the
+ * remote address; {@code X-Client-Id} is only believed from one of the configured trusted proxies,
+ * since anyone else could dodge their limit by changing it. Past that, requests share an
+ * {@link AdaptiveConcurrencyLimiter} and are answered 503 once their priority's share of the limit is
+ * taken. Payment writes may use the whole limit, list reads
+ * and exports only part of it. Both rejections carry {@code Retry-After}.
+ *
+ * <p>Metrics: {@code admission.concurrency.limit}, {@code admission.concurrency.in-flight},
+ * {@code admission.clients.tracked} and {@code admission.rejected{reason, priority}}.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final Pattern PAYMENT_WRITE = Pattern.compile("/api/orders/[^/]+/payments(/refund)?");
+    private static final Set<String> LIST_PATHS =
+            Set.of("/api/orders", "/api/orders/lookup", "/api/orders/views", "/api/orders/export");
+
+    /** Share of the concurrency limit each kind of request may fill. */
+    enum Priority {
+        PAYMENT_WRITE(1.0), STANDARD(0.85), LIST_READ(0.6);
+
+        final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private final ClientRateLimiter rateLimiter;
+    private final Set<String> trustedProxies;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final long overloadRetryAfterSeconds;
+    private final Map<Priority, Counter> rateLimited = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> overloaded = new EnumMap<>(Priority.class);
+
+    public AdmissionControlFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                  Duration overloadRetryAfter, Set<String> trustedProxies, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.overloadRetryAfterSeconds = Math.max(1, overloadRetryAfter.toSeconds());
+        Gauge.builder("admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+                .register(meterRegistry);
+        Gauge.builder("admission.concurrency.in-flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+                .register(meterRegistry);
+        Gauge.builder("admission.clients.tracked", rateLimiter, ClientRateLimiter::trackedClients)
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            rateLimited.put(priority, rejected(meterRegistry, "RATE_LIMITED", priority));
+            overloaded.put(priority, rejected(meterRegistry, "OVERLOADED", priority));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Priority priority = priority(request);
+        long start = System.nanoTime();
+        long waitNanos = rateLimiter.tryAcquire(clientId(request), start);
+        if (waitNanos > 0) {
+            rateLimited.get(priority).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMITED",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)),
+                    "Request rate limit exceeded for this client");
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire(priority.share)) {
+            overloaded.get(priority).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "OVERLOADED", overloadRetryAfterSeconds,
+                    "Service is at capacity, retry later");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // List reads and exports vary with their size, and async requests only hold the thread
+            // until they start; neither says much about how loaded the service is.
+            boolean sample = priority != Priority.LIST_READ && !request.isAsyncStarted();
+            concurrencyLimiter.release(sample ? System.nanoTime() - start : -1);
+        }
+    }
+
+    static Priority priority(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if ("POST".equals(method) && PAYMENT_WRITE.matcher(path).matches()) {
+            return Priority.PAYMENT_WRITE;
+        }
+        if ("GET".equals(method) && (LIST_PATHS.contains(path) || path.startsWith("/api/analytics"))) {
+            return Priority.LIST_READ;
+        }
+        return Priority.STANDARD;
+    }
+
+    private String clientId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddr)) {
+            String clientId = request.getHeader(CLIENT_ID_HEADER);
+            if (clientId != null && !clientId.isBlank()) {
+                return "client:" + clientId;
+            }
+        }
+        return remoteAddr;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String error,
+                               long retryAfterSeconds, String message) throws IOException {
+        byte[] body = ApiErrors.body(error, message);
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason, Priority priority) {
+        return Counter.builder("admission.rejected")
+                .tag("reason", reason)
+                .tag("priority", priority.name())
+                .register(meterRegistry);
+    }
+}
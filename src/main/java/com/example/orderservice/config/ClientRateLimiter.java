@@ -0,0 +1,59 @@
+package com.example.orderservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * One token bucket per client: {@code rate} tokens a second, up to {@code burst} saved up. Buckets of
+ * clients that went quiet are dropped after {@code idleTimeout}, and at most {@code maxClients} are
+ * tracked, so a flood of made-up client ids costs bounded memory (the evicted ones start full again).
+ */
+public final class ClientRateLimiter {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final Cache<String, Bucket> buckets;
+
+    public ClientRateLimiter(double ratePerSecond, int burst, long maxClients, Duration idleTimeout) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate must be positive and burst at least 1");
+        }
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder().maximumSize(maxClients).expireAfterAccess(idleTimeout).build();
+    }
+
+    /** Takes a token for the client; returns 0 if it got one, otherwise the nanos until one is available. */
+    public long tryAcquire(String clientId, long nowNanos) {
+        return buckets.get(clientId, id -> new Bucket(burst, nowNanos)).tryAcquire(nowNanos);
+    }
+
+    public long trackedClients() {
+        return buckets.estimatedSize();
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        synchronized long tryAcquire(long nowNanos) {
+            if (nowNanos > refilledAt) {
+                tokens = Math.min(burst, tokens + (nowNanos - refilledAt) * tokensPerNano);
+                refilledAt = nowNanos;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.example.orderservice.config;
 
+import com.example.orderservice.model.Money;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.media.NumberSchema;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+
 @Configuration
 public class OpenApiConfig {
 
+    static {
+        // Money is written as a plain JSON number, not as its record components.
+        SpringDocUtils.getConfig().replaceWithSchema(Money.class,
+                new NumberSchema().example(new BigDecimal("1549.99")));
+    }
+
     @Bean
     public OpenAPI orderServiceOpenAPI() {
         return new OpenAPI()
@@ -1,6 +1,11 @@
 package com.example.orderservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -8,10 +13,14 @@ import org.springframework.core.annotation.Order;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 public class WebConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(WebConfig.class);
+
     @Bean
     @Order(Ordered.HIGHEST_PRECEDENCE)
     public Filter h2ConsoleFrameOptionsFilter() {
@@ -22,4 +31,36 @@ public class WebConfig {
             }
         };
     }
+
+    /** Runs after the HTTP observation filter, so rejected requests still show up in http.server.requests. */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.client.rate:200}") double clientRate,
+            @Value("${admission.client.burst:400}") int clientBurst,
+            @Value("${admission.client.max-tracked:10000}") long maxTrackedClients,
+            @Value("${admission.client.idle-timeout:10m}") Duration clientIdleTimeout,
+            @Value("${admission.concurrency.initial-limit:100}") int initialLimit,
+            @Value("${admission.concurrency.min-limit:10}") int minLimit,
+            @Value("${admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${admission.concurrency.target-latency:250ms}") Duration targetLatency,
+            @Value("${admission.concurrency.window:50}") int window,
+            @Value("${admission.concurrency.backoff:0.9}") double backoff,
+            @Value("${admission.retry-after:1s}") Duration retryAfter,
+            @Value("${admission.trusted-proxies:}") Set<String> trustedProxies,
+            MeterRegistry meterRegistry) {
+        if (enabled && trustedProxies.isEmpty()) {
+            log.warn("admission.trusted-proxies is not set: clients are rate limited by remote address, so all "
+                    + "clients behind a load balancer or reverse proxy share one bucket");
+        }
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new ClientRateLimiter(clientRate, clientBurst, maxTrackedClients, clientIdleTimeout),
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatency.toNanos(), window, backoff),
+                retryAfter, trustedProxies, meterRegistry);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setEnabled(enabled);
+        return registration;
+    }
 }
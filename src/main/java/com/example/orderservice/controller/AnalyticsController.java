@@ -0,0 +1,31 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.model.AnalyticsReport;
+import com.example.orderservice.service.OrderAnalytics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final OrderAnalytics orderAnalytics;
+
+    public AnalyticsController(OrderAnalytics orderAnalytics) {
+        this.orderAnalytics = orderAnalytics;
+    }
+
+    @GetMapping
+    public ResponseEntity<AnalyticsReport> getReport() {
+        return ResponseEntity.ok(orderAnalytics.report());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<AnalyticsReport> rebuild() {
+        orderAnalytics.rebuild();
+        return ResponseEntity.ok(orderAnalytics.report());
+    }
+}
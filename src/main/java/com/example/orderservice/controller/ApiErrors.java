@@ -0,0 +1,40 @@
+package com.example.orderservice.controller;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code {"error": ..., "message": ...}} body every endpoint answers errors with, written as bytes.
+ * The part up to the message is built once per error code, so an error costs one escaped copy of
+ * the message instead of a map and a trip through Jackson.
+ */
+public final class ApiErrors {
+
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final Map<String, byte[]> PREFIXES = new ConcurrentHashMap<>();
+
+    private ApiErrors() {
+    }
+
+    public static ResponseEntity<byte[]> response(HttpStatus status, String error, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body(error, message));
+    }
+
+    public static byte[] body(String error, String message) {
+        byte[] prefix = PREFIXES.computeIfAbsent(error, code ->
+                ("{\"error\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(code)) + "\",\"message\":\"")
+                        .getBytes(StandardCharsets.UTF_8));
+        byte[] quoted = JsonStringEncoder.getInstance().quoteAsUTF8(message == null ? "" : message);
+        byte[] body = Arrays.copyOf(prefix, prefix.length + quoted.length + SUFFIX.length);
+        System.arraycopy(quoted, 0, body, prefix.length, quoted.length);
+        System.arraycopy(SUFFIX, 0, body, prefix.length + quoted.length, SUFFIX.length);
+        return body;
+    }
+}
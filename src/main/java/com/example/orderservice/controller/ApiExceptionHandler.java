@@ -0,0 +1,76 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.exception.*;
+import com.example.orderservice.service.PaymentMetrics;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Maps {@link DomainException}s and optimistic-lock conflicts thrown by any controller to their error
+ * response, and counts failures of handlers marked {@link PaymentOperation} in {@code payments.outcomes}
+ * under the error code.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private final PaymentMetrics paymentMetrics;
+
+    public ApiExceptionHandler(PaymentMetrics paymentMetrics) {
+        this.paymentMetrics = paymentMetrics;
+    }
+
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<byte[]> handle(DomainException e, HandlerMethod handler) {
+        record(handler, e.getErrorCode());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(statusOf(e)).contentType(MediaType.APPLICATION_JSON);
+        if (e instanceof PaymentBackpressureException) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.body(ApiErrors.body(e.getErrorCode(), e.getMessage()));
+    }
+
+    /**
+     * A version check failed at flush or commit, after the handler's own checks passed. With If-Match
+     * the client's version is stale (412); otherwise the write raced another one and may be retried (409).
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handle(OptimisticLockingFailureException e, HandlerMethod handler,
+                                         WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_MATCH) != null) {
+            record(handler, "PRECONDITION_FAILED");
+            return ApiErrors.response(HttpStatus.PRECONDITION_FAILED, "PRECONDITION_FAILED",
+                    "The resource has changed since the version given in If-Match");
+        }
+        record(handler, "CONCURRENT_MODIFICATION");
+        return ApiErrors.response(HttpStatus.CONFLICT, "CONCURRENT_MODIFICATION",
+                "The resource was modified concurrently, retry the request");
+    }
+
+    private void record(HandlerMethod handler, String errorCode) {
+        PaymentOperation operation = handler == null ? null : handler.getMethodAnnotation(PaymentOperation.class);
+        if (operation != null) {
+            paymentMetrics.record(operation.value(), errorCode);
+        }
+    }
+
+    private static HttpStatus statusOf(DomainException e) {
+        return switch (e) {
+            case OrderNotFoundException ignored -> HttpStatus.NOT_FOUND;
+            case PaymentNotFoundException ignored -> HttpStatus.NOT_FOUND;
+            case OrderValidationException ignored -> HttpStatus.BAD_REQUEST;
+            case PaymentValidationException ignored -> HttpStatus.BAD_REQUEST;
+            case PaymentConflictException ignored -> HttpStatus.CONFLICT;
+            case InvalidStatusTransitionException ignored -> HttpStatus.CONFLICT;
+            case PreconditionFailedException ignored -> HttpStatus.PRECONDITION_FAILED;
+            case IdempotencyKeyReusedException ignored -> HttpStatus.UNPROCESSABLE_ENTITY;
+            case PaymentBackpressureException ignored -> HttpStatus.SERVICE_UNAVAILABLE;
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.model.BulkRefundRequest;
+import com.example.orderservice.service.BulkRefundService;
+import com.example.orderservice.service.PaymentMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/orders/bulk/refund")
+public class BulkRefundController {
+
+    private static final String BULK_REFUND = "bulk-refund";
+
+    private final BulkRefundService bulkRefundService;
+    private final PaymentMetrics paymentMetrics;
+
+    public BulkRefundController(BulkRefundService bulkRefundService, PaymentMetrics paymentMetrics) {
+        this.bulkRefundService = bulkRefundService;
+        this.paymentMetrics = paymentMetrics;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> refundOrders(@RequestBody BulkRefundRequest request) {
+        if (request.hasOrderIds() == request.hasFilter()) {
+            return buildError(HttpStatus.BAD_REQUEST, "BULK_TARGET_REQUIRED",
+                    "Give either orderIds or a non-empty filter");
+        }
+        if (request.hasOrderIds() && request.orderIds().size() > bulkRefundService.getMaxItems()) {
+            return buildError(HttpStatus.PAYLOAD_TOO_LARGE, "BATCH_TOO_LARGE",
+                    "At most " + bulkRefundService.getMaxItems() + " orders per request");
+        }
+        if (request.hasOrderIds() && request.orderIds().contains(null)) {
+            return buildError(HttpStatus.BAD_REQUEST, "INVALID_ORDER_ID", "orderIds must not contain null");
+        }
+        paymentMetrics.record(BULK_REFUND, PaymentMetrics.SUCCESS);
+        return ResponseEntity.ok(bulkRefundService.refund(request));
+    }
+
+    private ResponseEntity<byte[]> buildError(HttpStatus status, String error, String message) {
+        paymentMetrics.record(BULK_REFUND, error);
+        return ApiErrors.response(status, error, message);
+    }
+}
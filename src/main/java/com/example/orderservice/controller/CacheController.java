@@ -0,0 +1,25 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.service.OrderCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final OrderCache orderCache;
+
+    public CacheController(OrderCache orderCache) {
+        this.orderCache = orderCache;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getStats() {
+        return ResponseEntity.ok(orderCache.stats());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.model.ChangeFilter;
+import com.example.orderservice.service.ChangeStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeStreamController {
+
+    private final ChangeStreamService changeStreamService;
+
+    public ChangeStreamController(ChangeStreamService changeStreamService) {
+        this.changeStreamService = changeStreamService;
+    }
+
+    /**
+     * Server-Sent Events of order and payment changes. Each event id is an offset; reconnecting with
+     * Last-Event-ID (or {@code ?after=}) replays what was missed before switching to live changes.
+     * {@code status} matches the new order or payment status, e.g. SHIPPED or SUCCESS.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long orderId,
+                             @RequestParam(required = false) String customerName,
+                             @RequestParam(required = false) List<String> status,
+                             @RequestParam(required = false) Long after,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        ChangeFilter filter = new ChangeFilter(orderId, customerName, status == null ? Set.of() : Set.copyOf(status));
+        return changeStreamService.subscribe(filter, lastEventId != null ? lastEventId : after);
+    }
+}
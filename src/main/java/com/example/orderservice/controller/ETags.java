@@ -0,0 +1,24 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.service.SerializedResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/** Strong entity tags derived from the JPA version column. */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** 200 with the pre-serialized body written as-is and its version as the ETag. */
+    static ResponseEntity<byte[]> ok(SerializedResponse response) {
+        return ResponseEntity.ok()
+                .eTag(of(response.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.body());
+    }
+}
@@ -1,21 +1,57 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.exception.PreconditionFailedException;
+import com.example.orderservice.model.BulkOrderResponse;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderFilter;
+import com.example.orderservice.model.OrderPage;
+import com.example.orderservice.model.OrderPatch;
+import com.example.orderservice.model.OrderStatusResponse;
+import com.example.orderservice.model.OrderView;
+import com.example.orderservice.model.OrderViewPage;
+import com.example.orderservice.model.SkuSummary;
+import com.example.orderservice.model.StatusTransitionRequest;
+import com.example.orderservice.service.OrderExportService;
+import com.example.orderservice.service.LineItemMigrationService;
+import com.example.orderservice.service.OrderIngestService;
 import com.example.orderservice.service.OrderService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderIngestService orderIngestService;
+    private final LineItemMigrationService lineItemMigrationService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService,
+                           OrderIngestService orderIngestService, LineItemMigrationService lineItemMigrationService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.orderIngestService = orderIngestService;
+        this.lineItemMigrationService = lineItemMigrationService;
     }
 
     @PostMapping
@@ -24,25 +60,134 @@ public class OrderController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createOrders(@RequestBody List<Order> orders) {
+        if (orders.size() > orderIngestService.getMaxItems()) {
+            return buildError(HttpStatus.PAYLOAD_TOO_LARGE, "BATCH_TOO_LARGE",
+                    "At most " + orderIngestService.getMaxItems() + " orders per request");
+        }
+        return ResponseEntity.ok(orderIngestService.createOrders(orders));
+    }
+
+    @PostMapping(value = "/bulk", consumes = NDJSON)
+    public ResponseEntity<BulkOrderResponse> createOrdersStream(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(orderIngestService.createOrders(request.getInputStream()));
+    }
+
+    /** Always one keyset page; without {@code limit} it holds orders.page.default-size orders. */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<OrderPage> getAllOrders(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String sku,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        OrderFilter filter = new OrderFilter(status, customerName, createdFrom, createdTo, sku);
+        return ResponseEntity.ok(orderService.findOrders(filter, after, limit));
+    }
+
+    /** Index-backed lookup, e.g. {@code ?customerName=X&open=true} or {@code ?status=PROCESSING}. */
+    @GetMapping("/lookup")
+    public ResponseEntity<?> lookupOrders(
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) List<Order.OrderStatus> status,
+            @RequestParam(defaultValue = "false") boolean open,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        Set<Order.OrderStatus> statuses = EnumSet.noneOf(Order.OrderStatus.class);
+        if (status != null) {
+            statuses.addAll(status);
+        }
+        if (open) {
+            Arrays.stream(Order.OrderStatus.values()).filter(Order.OrderStatus::isOpen).forEach(statuses::add);
+        }
+        if (customerName == null && statuses.isEmpty()) {
+            return buildError(HttpStatus.BAD_REQUEST, "LOOKUP_KEY_REQUIRED", "Specify customerName, status or open=true");
+        }
+        return ResponseEntity.ok(orderService.lookupOrders(customerName, statuses, after, limit));
+    }
+
+    /** Orders with their payments, one query per page; {@code ?customerName=X} narrows to one customer. */
+    @GetMapping("/views")
+    public ResponseEntity<OrderViewPage> getOrderViews(
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(orderService.findOrderViews(customerName, after, limit));
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void exportOrders(@RequestParam(defaultValue = "false") boolean includePayments,
+                             HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        orderExportService.exportOrders(response.getOutputStream(), includePayments);
+    }
+
+    @GetMapping("/skus/{sku}")
+    public ResponseEntity<SkuSummary> getSkuSummary(@PathVariable String sku) {
+        return ResponseEntity.ok(orderService.summarizeSku(sku));
+    }
+
+    @PostMapping("/line-items/migrate")
+    public ResponseEntity<Map<String, Long>> migrateLegacyItems() {
+        return ResponseEntity.ok(Map.of("migrated", lineItemMigrationService.migrateLegacyItems()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        return orderService.getOrderById(id)
+    public ResponseEntity<byte[]> getOrderById(@PathVariable Long id, WebRequest request) {
+        // Revalidation only needs the version, so an unchanged order is neither loaded nor serialized.
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = orderService.findVersion(id);
+            if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
+        return orderService.getOrderResponse(id)
+                .map(ETags::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** The order and its payment in one response and one query, instead of GET order plus GET payment. */
+    @GetMapping("/{id}/view")
+    public ResponseEntity<OrderView> getOrderView(@PathVariable Long id) {
+        return orderService.getOrderView(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
-        return orderService.updateOrder(id, order)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> updateOrder(@PathVariable Long id, @RequestBody Order order, WebRequest request) {
+        Long expectedVersion = null;
+        if (request.getHeader(HttpHeaders.IF_MATCH) != null) {
+            Optional<Long> version = orderService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(ETags.of(version.get()))) {
+                throw new PreconditionFailedException(id);
+            }
+            expectedVersion = version.get();
+        }
+        return orderService.updateOrder(id, order, expectedVersion)
+                .map(saved -> ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(saved))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchOrder(@PathVariable Long id, @RequestBody OrderPatch patch) {
+        orderService.patchOrder(id, patch);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{id}/transitions")
+    public ResponseEntity<OrderStatusResponse> transitionStatus(@PathVariable Long id, @Valid @RequestBody StatusTransitionRequest request) {
+        Order.OrderStatus status = orderService.transitionStatus(id, request.getStatus(), request.getExpectedStatus());
+        return ResponseEntity.ok(new OrderStatusResponse(id, status));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         if (orderService.deleteOrder(id)) {
@@ -50,4 +195,8 @@ public class OrderController {
         }
         return ResponseEntity.notFound().build();
     }
+
+    private ResponseEntity<byte[]> buildError(HttpStatus status, String error, String message) {
+        return ApiErrors.response(status, error, message);
+    }
 }
@@ -1,65 +1,93 @@
 package com.example.orderservice.controller;
 
-import com.example.orderservice.exception.*;
 import com.example.orderservice.model.Payment;
 import com.example.orderservice.model.PaymentRequest;
+import com.example.orderservice.service.IdempotencyService;
+import com.example.orderservice.service.PaymentMetrics;
 import com.example.orderservice.service.PaymentService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders/{orderId}/payments")
 public class PaymentController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final String CREATE = "create";
+    private static final String GET = "get";
+    private static final String REFUND = "refund";
+
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentMetrics paymentMetrics;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService,
+                             PaymentMetrics paymentMetrics) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
+        this.paymentMetrics = paymentMetrics;
     }
 
     @PostMapping
+    @PaymentOperation(CREATE)
     public ResponseEntity<?> createPayment(@PathVariable Long orderId,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                            @Valid @RequestBody PaymentRequest request) {
-        try {
-            Payment payment = paymentService.createPayment(orderId, request);
-            return new ResponseEntity<>(payment, HttpStatus.CREATED);
-        } catch (OrderNotFoundException e) {
-            return buildError(HttpStatus.NOT_FOUND, "ORDER_NOT_FOUND", e.getMessage());
-        } catch (PaymentConflictException e) {
-            return buildError(HttpStatus.CONFLICT, "PAYMENT_EXISTS", e.getMessage());
-        } catch (PaymentValidationException e) {
-            return buildError(HttpStatus.BAD_REQUEST, e.getErrorCode(), e.getMessage());
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return doCreatePayment(orderId, request);
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return buildError(CREATE, HttpStatus.BAD_REQUEST, "INVALID_IDEMPOTENCY_KEY",
+                    "Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
         }
+        ResponseEntity<?> response = idempotencyService.execute(orderId, idempotencyKey, request,
+                () -> doCreatePayment(orderId, request));
+        if (response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) {
+            paymentMetrics.record(CREATE, "REPLAYED");
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> doCreatePayment(Long orderId, PaymentRequest request) {
+        Payment payment = paymentService.createPayment(orderId, request);
+        if (payment.getStatus() == Payment.PaymentStatus.PENDING) {
+            paymentMetrics.record(CREATE, "ACCEPTED");
+            return new ResponseEntity<>(payment, HttpStatus.ACCEPTED);
+        }
+        paymentMetrics.record(CREATE, PaymentMetrics.SUCCESS);
+        return new ResponseEntity<>(payment, HttpStatus.CREATED);
     }
 
     @GetMapping
-    public ResponseEntity<?> getPayment(@PathVariable Long orderId) {
-        try {
-            return paymentService.getPaymentByOrderId(orderId)
-                    .map(p -> ResponseEntity.ok((Object) p))
-                    .orElseGet(() -> ResponseEntity.notFound().build());
-        } catch (OrderNotFoundException e) {
-            return buildError(HttpStatus.NOT_FOUND, "ORDER_NOT_FOUND", e.getMessage());
+    @PaymentOperation(GET)
+    public ResponseEntity<?> getPayment(@PathVariable Long orderId, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = paymentService.findPaymentVersion(orderId);
+            if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
         }
+        return paymentService.getPaymentResponse(orderId)
+                .<ResponseEntity<?>>map(ETags::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/refund")
+    @PaymentOperation(REFUND)
     public ResponseEntity<?> refundPayment(@PathVariable Long orderId) {
-        try {
-            Payment payment = paymentService.refundPayment(orderId);
-            return ResponseEntity.ok(payment);
-        } catch (OrderNotFoundException | PaymentNotFoundException e) {
-            return buildError(HttpStatus.NOT_FOUND, "NOT_FOUND", e.getMessage());
-        } catch (PaymentValidationException e) {
-            return buildError(HttpStatus.BAD_REQUEST, e.getErrorCode(), e.getMessage());
-        }
+        Payment payment = paymentService.refundPayment(orderId);
+        paymentMetrics.record(REFUND, PaymentMetrics.SUCCESS);
+        return ResponseEntity.ok(payment);
     }
 
-    private ResponseEntity<Map<String, String>> buildError(HttpStatus status, String error, String message) {
-        return new ResponseEntity<>(Map.of("error", error, "message", message), status);
+    private ResponseEntity<byte[]> buildError(String operation, HttpStatus status, String error, String message) {
+        paymentMetrics.record(operation, error);
+        return ApiErrors.response(status, error, message);
     }
 }
@@ -0,0 +1,17 @@
+package com.example.orderservice.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The {@code operation} tag under which {@link ApiExceptionHandler} counts a handler's errors in
+ * {@code payments.outcomes}. Handlers without it are not counted.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@interface PaymentOperation {
+
+    String value();
+}
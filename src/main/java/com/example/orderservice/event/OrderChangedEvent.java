@@ -0,0 +1,27 @@
+package com.example.orderservice.event;
+
+import com.example.orderservice.model.Order;
+
+/**
+ * Published by every write path once an order row has changed. {@code before} is null for
+ * created orders and {@code after} is null for deleted ones. Listeners that must not see
+ * rolled-back changes use {@code @TransactionalEventListener}.
+ */
+public record OrderChangedEvent(Type type, Long orderId, OrderSnapshot before, OrderSnapshot after) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static OrderChangedEvent created(Order order) {
+        return new OrderChangedEvent(Type.CREATED, order.getId(), null, OrderSnapshot.of(order));
+    }
+
+    public static OrderChangedEvent updated(Long orderId, OrderSnapshot before, OrderSnapshot after) {
+        return new OrderChangedEvent(Type.UPDATED, orderId, before, after);
+    }
+
+    public static OrderChangedEvent deleted(Long orderId, OrderSnapshot before) {
+        return new OrderChangedEvent(Type.DELETED, orderId, before, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.orderservice.event;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+
+/**
+ * The indexed fields of an order at one point in time. A null field means the writer did not
+ * read it: conditional updates and direct deletes never load the row.
+ */
+public record OrderSnapshot(String customerName, Order.OrderStatus status, Money totalAmount) {
+
+    public static final OrderSnapshot UNKNOWN = new OrderSnapshot(null, null, null);
+
+    public static OrderSnapshot of(Order order) {
+        return new OrderSnapshot(order.getCustomerName(), order.getStatus(), order.getTotalAmount());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.orderservice.event;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Payment;
+
+/**
+ * Published once a payment row has been written. {@code previousStatus} is null for a new payment.
+ */
+public record PaymentChangedEvent(Long orderId, Payment.PaymentStatus previousStatus, Payment.PaymentStatus status,
+                                  Payment.PaymentMethod paymentMethod, Money amount) {
+
+    public static PaymentChangedEvent of(Payment payment, Payment.PaymentStatus previousStatus) {
+        return new PaymentChangedEvent(payment.getOrderId(), previousStatus, payment.getStatus(),
+                payment.getPaymentMethod(), payment.getAmount());
+    }
+}
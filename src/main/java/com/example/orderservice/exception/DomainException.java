@@ -0,0 +1,21 @@
+package com.example.orderservice.exception;
+
+/**
+ * Expected business outcomes that end in an error response (see ApiExceptionHandler). Under retry
+ * storms most payment requests end in one of these, so they carry their error code and skip the
+ * stack trace, which would only ever show the same service frames.
+ */
+public abstract sealed class DomainException extends RuntimeException
+        permits IdempotencyKeyReusedException, InvalidStatusTransitionException, OrderNotFoundException, OrderValidationException,
+                PaymentBackpressureException, PaymentConflictException, PaymentNotFoundException,
+                PaymentValidationException, PreconditionFailedException {
+
+    private final String errorCode;
+
+    protected DomainException(String errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorCode() { return errorCode; }
+}
@@ -0,0 +1,8 @@
+package com.example.orderservice.exception;
+
+public final class IdempotencyKeyReusedException extends DomainException {
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("IDEMPOTENCY_KEY_REUSED",
+                "Idempotency-Key " + idempotencyKey + " was already used with a different request body");
+    }
+}
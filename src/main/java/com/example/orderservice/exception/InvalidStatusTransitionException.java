@@ -0,0 +1,14 @@
+package com.example.orderservice.exception;
+
+import com.example.orderservice.model.Order;
+
+public final class InvalidStatusTransitionException extends DomainException {
+    private final Order.OrderStatus currentStatus;
+
+    public InvalidStatusTransitionException(Long orderId, Order.OrderStatus currentStatus, Order.OrderStatus targetStatus) {
+        super("INVALID_TRANSITION", "Order " + orderId + " cannot move from " + currentStatus + " to " + targetStatus);
+        this.currentStatus = currentStatus;
+    }
+
+    public Order.OrderStatus getCurrentStatus() { return currentStatus; }
+}
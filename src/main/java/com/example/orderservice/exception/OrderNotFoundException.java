@@ -1,7 +1,7 @@
 package com.example.orderservice.exception;
 
-public class OrderNotFoundException extends RuntimeException {
+public final class OrderNotFoundException extends DomainException {
     public OrderNotFoundException(Long orderId) {
-        super("Order not found with id: " + orderId);
+        super("ORDER_NOT_FOUND", "Order not found with id: " + orderId);
     }
 }
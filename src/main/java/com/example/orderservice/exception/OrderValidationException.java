@@ -0,0 +1,7 @@
+package com.example.orderservice.exception;
+
+public final class OrderValidationException extends DomainException {
+    public OrderValidationException(String errorCode, String message) {
+        super(errorCode, message);
+    }
+}
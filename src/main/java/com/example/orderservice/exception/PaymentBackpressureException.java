@@ -0,0 +1,7 @@
+package com.example.orderservice.exception;
+
+public final class PaymentBackpressureException extends DomainException {
+    public PaymentBackpressureException(Long orderId) {
+        super("PAYMENTS_BUSY", "Payment queue is full, retry the payment for order id: " + orderId);
+    }
+}
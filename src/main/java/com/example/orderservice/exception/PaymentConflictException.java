@@ -1,7 +1,7 @@
 package com.example.orderservice.exception;
 
-public class PaymentConflictException extends RuntimeException {
+public final class PaymentConflictException extends DomainException {
     public PaymentConflictException(Long orderId) {
-        super("A payment already exists for order id: " + orderId);
+        super("PAYMENT_EXISTS", "A payment already exists for order id: " + orderId);
     }
 }
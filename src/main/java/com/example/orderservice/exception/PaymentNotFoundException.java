@@ -1,7 +1,7 @@
 package com.example.orderservice.exception;
 
-public class PaymentNotFoundException extends RuntimeException {
+public final class PaymentNotFoundException extends DomainException {
     public PaymentNotFoundException(Long orderId) {
-        super("No payment found for order id: " + orderId);
+        super("PAYMENT_NOT_FOUND", "No payment found for order id: " + orderId);
     }
 }
@@ -1,12 +1,7 @@
 package com.example.orderservice.exception;
 
-public class PaymentValidationException extends RuntimeException {
-    private final String errorCode;
-
+public final class PaymentValidationException extends DomainException {
     public PaymentValidationException(String errorCode, String message) {
-        super(message);
-        this.errorCode = errorCode;
+        super(errorCode, message);
     }
-
-    public String getErrorCode() { return errorCode; }
 }
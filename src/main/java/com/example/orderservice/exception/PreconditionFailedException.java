@@ -0,0 +1,7 @@
+package com.example.orderservice.exception;
+
+public final class PreconditionFailedException extends DomainException {
+    public PreconditionFailedException(Long orderId) {
+        super("PRECONDITION_FAILED", "Order " + orderId + " has changed since the version given in If-Match");
+    }
+}
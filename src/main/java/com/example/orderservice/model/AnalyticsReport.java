@@ -0,0 +1,20 @@
+package com.example.orderservice.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.SortedMap;
+
+/** Amounts are in minor units (cents). {@code hourly} is keyed by the start of each hour. */
+public record AnalyticsReport(Map<Order.OrderStatus, Totals> ordersByStatus,
+                              Map<Payment.PaymentMethod, Totals> paymentsByMethod,
+                              Totals refunds,
+                              SortedMap<LocalDateTime, HourlyCounts> hourly,
+                              LocalDateTime checkpointedAt,
+                              boolean rebuildPending) {
+
+    public record Totals(long count, long amountMinor) {
+    }
+
+    public record HourlyCounts(long orders, long payments, long refunds) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+
+/** One checkpointed analytics counter, e.g. {@code status.PLACED} or {@code hour.payments.2026-01-31T09:00}. */
+@Entity
+@Table(name = "analytics_summary")
+public class AnalyticsSummary {
+
+    @Id
+    @Column(length = 64)
+    private String metric;
+
+    @Column(nullable = false)
+    private long count;
+
+    @Column(nullable = false)
+    private long amountMinor;
+
+    protected AnalyticsSummary() {
+    }
+
+    public AnalyticsSummary(String metric, long count, long amountMinor) {
+        this.metric = metric;
+        this.count = count;
+        this.amountMinor = amountMinor;
+    }
+
+    public String getMetric() { return metric; }
+
+    public long getCount() { return count; }
+
+    public long getAmountMinor() { return amountMinor; }
+}
@@ -0,0 +1,23 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(int index, Long id, Outcome outcome, String error) {
+
+    public enum Outcome {
+        CREATED, REJECTED, FAILED
+    }
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult(index, id, Outcome.CREATED, null);
+    }
+
+    public static BulkItemResult rejected(int index, String error) {
+        return new BulkItemResult(index, null, Outcome.REJECTED, error);
+    }
+
+    public static BulkItemResult failed(int index, String error) {
+        return new BulkItemResult(index, null, Outcome.FAILED, error);
+    }
+}
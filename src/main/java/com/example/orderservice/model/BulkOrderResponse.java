@@ -0,0 +1,18 @@
+package com.example.orderservice.model;
+
+import java.util.List;
+
+public record BulkOrderResponse(int created, int rejected, int failed, boolean truncated, List<BulkItemResult> items) {
+
+    public static BulkOrderResponse of(List<BulkItemResult> items, boolean truncated) {
+        int created = 0, rejected = 0, failed = 0;
+        for (BulkItemResult item : items) {
+            switch (item.outcome()) {
+                case CREATED -> created++;
+                case REJECTED -> rejected++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BulkOrderResponse(created, rejected, failed, truncated, items);
+    }
+}
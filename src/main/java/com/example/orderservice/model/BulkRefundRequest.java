@@ -0,0 +1,15 @@
+package com.example.orderservice.model;
+
+import java.util.List;
+
+/** Targets of a bulk refund: either explicit order ids or a filter, not both. */
+public record BulkRefundRequest(List<Long> orderIds, OrderFilter filter) {
+
+    public boolean hasOrderIds() {
+        return orderIds != null && !orderIds.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return filter != null && !filter.isEmpty();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orderservice.model;
+
+import java.util.List;
+
+public record BulkRefundResponse(int refunded, int cancelled, int notFound, int notRefundable, int failed,
+                                 boolean truncated, List<BulkRefundResult> items) {
+
+    public static BulkRefundResponse of(List<BulkRefundResult> items, boolean truncated) {
+        int refunded = 0, cancelled = 0, notFound = 0, notRefundable = 0, failed = 0;
+        for (BulkRefundResult item : items) {
+            switch (item.outcome()) {
+                case REFUNDED -> refunded++;
+                case CANCELLED -> cancelled++;
+                case NOT_FOUND -> notFound++;
+                case NOT_REFUNDABLE -> notRefundable++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BulkRefundResponse(refunded, cancelled, notFound, notRefundable, failed, truncated, items);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkRefundResult(Long orderId, Outcome outcome, String error) {
+
+    public enum Outcome {
+        /** Payment refunded and order cancelled. */
+        REFUNDED,
+        /** No captured payment; the open order was cancelled. */
+        CANCELLED,
+        NOT_FOUND,
+        NOT_REFUNDABLE,
+        FAILED
+    }
+
+    public static BulkRefundResult of(Long orderId, Outcome outcome) {
+        return new BulkRefundResult(orderId, outcome, null);
+    }
+
+    public static BulkRefundResult notRefundable(Long orderId, String error) {
+        return new BulkRefundResult(orderId, Outcome.NOT_REFUNDABLE, error);
+    }
+
+    public static BulkRefundResult failed(Long orderId, String error) {
+        return new BulkRefundResult(orderId, Outcome.FAILED, error);
+    }
+}
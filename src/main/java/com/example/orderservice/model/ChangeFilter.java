@@ -0,0 +1,13 @@
+package com.example.orderservice.model;
+
+import java.util.Set;
+
+/** Subscriber filter for the change stream; null or empty fields match everything. */
+public record ChangeFilter(Long orderId, String customerName, Set<String> statuses) {
+
+    public boolean matches(ChangeNotification change) {
+        return (orderId == null || orderId.equals(change.orderId()))
+                && (customerName == null || customerName.equals(change.customerName()))
+                && (statuses == null || statuses.isEmpty() || statuses.contains(change.status()));
+    }
+}
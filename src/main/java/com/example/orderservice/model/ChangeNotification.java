@@ -0,0 +1,16 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/** Payload of one change-stream event; {@code offset} is also sent as the SSE event id. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeNotification(long offset, String type, Long orderId, String customerName, String status,
+                                 String previousStatus, LocalDateTime occurredAt) {
+
+    public static ChangeNotification of(OutboxEvent event) {
+        return new ChangeNotification(event.getId(), event.getType(), event.getOrderId(), event.getCustomerName(),
+                event.getStatus(), event.getPreviousStatus(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An exact amount in minor currency units (cents for USD). Amounts are stored as BIGINT minor units
+ * ({@link MoneyConverter}) and travel as plain JSON decimals such as {@code 1549.99}
+ * ({@link MoneyJson}); parsing reads the digits straight into a long, without going through
+ * {@code double} or {@code BigDecimal}. The service runs in a single currency, {@link #DEFAULT_CURRENCY}.
+ */
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public record Money(long minor, Currency currency) implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    /** Longest formatted amount: sign, 19 digits, decimal point and a leading zero. */
+    static final int MAX_CHARS = 22;
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+        if (currency.getDefaultFractionDigits() < 0) {
+            throw new IllegalArgumentException("Currency " + currency + " has no minor unit");
+        }
+    }
+
+    public static Money ofMinor(long minor) {
+        return new Money(minor, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Parses a plain decimal such as {@code "1549.99"} in the default currency.
+     *
+     * @throws NumberFormatException if the text is not a decimal with at most the currency's
+     *                               fraction digits (trailing zeros aside) or does not fit a long
+     */
+    public static Money parse(CharSequence text) {
+        char[] chars = text.toString().toCharArray();
+        return ofMinor(parseMinor(chars, 0, chars.length, DEFAULT_CURRENCY.getDefaultFractionDigits()));
+    }
+
+    /** Parses {@code chars[offset, offset + length)} as a plain decimal, scaled to {@code fractionDigits}. */
+    public static long parseMinor(char[] chars, int offset, int length, int fractionDigits) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = length > 0 && chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw invalid(chars, offset, length, "is not a plain decimal amount");
+            }
+            if (scale == fractionDigits) {
+                if (c != '0') {
+                    throw invalid(chars, offset, length, "has more than " + fractionDigits + " decimal places");
+                }
+                continue;
+            }
+            if (scale >= 0) {
+                scale++;
+            }
+            value = appendDigit(value, c - '0', chars, offset, length);
+            digits++;
+        }
+        if (digits == 0) {
+            throw invalid(chars, offset, length, "is not a plain decimal amount");
+        }
+        for (int s = Math.max(scale, 0); s < fractionDigits; s++) {
+            value = appendDigit(value, 0, chars, offset, length);
+        }
+        return negative ? -value : value;
+    }
+
+    public boolean isPositive() {
+        return minor > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot compare " + currency + " with " + other.currency);
+        }
+        return Long.compare(minor, other.minor);
+    }
+
+    /**
+     * Writes the decimal form right-aligned into {@code buffer} (at least {@link #MAX_CHARS} long).
+     *
+     * @return the index of the first character written
+     */
+    int format(char[] buffer) {
+        int fractionDigits = currency.getDefaultFractionDigits();
+        int pos = buffer.length;
+        // Work on the negative value so Long.MIN_VALUE needs no special case.
+        long remaining = minor < 0 ? minor : -minor;
+        int written = 0;
+        do {
+            buffer[--pos] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+            if (++written == fractionDigits) {
+                buffer[--pos] = '.';
+            }
+        } while (remaining != 0 || written <= fractionDigits);
+        if (minor < 0) {
+            buffer[--pos] = '-';
+        }
+        return pos;
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[MAX_CHARS];
+        int start = format(buffer);
+        return new String(buffer, start, buffer.length - start);
+    }
+
+    private static long appendDigit(long value, int digit, char[] chars, int offset, int length) {
+        if (value > (Long.MAX_VALUE - digit) / 10) {
+            throw invalid(chars, offset, length, "is out of range");
+        }
+        return value * 10 + digit;
+    }
+
+    private static NumberFormatException invalid(char[] chars, int offset, int length, String reason) {
+        return new NumberFormatException("Amount '" + new String(chars, offset, length) + "' " + reason);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores {@link Money} as a BIGINT of minor units in the default currency. */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        if (money == null) {
+            return null;
+        }
+        if (!Money.DEFAULT_CURRENCY.equals(money.currency())) {
+            throw new IllegalArgumentException("Only " + Money.DEFAULT_CURRENCY + " amounts can be stored, got " + money.currency());
+        }
+        return money.minor();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minor) {
+        return minor == null ? null : Money.ofMinor(minor);
+    }
+}
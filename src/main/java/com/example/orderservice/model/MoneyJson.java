@@ -0,0 +1,51 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+/**
+ * JSON form of {@link Money}: a plain number in the default currency, as the API has always sent
+ * amounts. Numbers (and numeric strings) are parsed from the parser's character buffer, so reading an
+ * amount allocates nothing beyond the {@link Money} itself.
+ */
+public final class MoneyJson {
+
+    private MoneyJson() {
+    }
+
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            char[] buffer = new char[Money.MAX_CHARS];
+            int start = value.format(buffer);
+            gen.writeNumber(buffer, start, buffer.length - start);
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                    && token != JsonToken.VALUE_STRING) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            try {
+                return Money.ofMinor(Money.parseMinor(p.getTextCharacters(), p.getTextOffset(), p.getTextLength(),
+                        Money.DEFAULT_CURRENCY.getDefaultFractionDigits()));
+            } catch (NumberFormatException e) {
+                throw InvalidFormatException.from(p, e.getMessage(), p.getText(), Money.class);
+            }
+        }
+    }
+}
@@ -1,29 +1,64 @@
 package com.example.orderservice.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        @Index(name = "idx_orders_customer_name_id", columnList = "customer_name, id"),
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id")
+})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     private String customerName;
 
     private String items;
 
-    private Double totalAmount;
+    /** Lazy: loaded by OrderRepository.findById's entity graph or findAllWithLineItems' join fetch. */
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @OrderBy("id")
+    private List<OrderLineItem> lineItems = new ArrayList<>();
+
+    private Money totalAmount;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
     private LocalDateTime createdAt;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     public enum OrderStatus {
-        PLACED, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+        PLACED, PROCESSING, SHIPPED, DELIVERED, CANCELLED;
+
+        /** Statuses an order may move to this status from: PLACED -> PROCESSING -> SHIPPED -> DELIVERED, PLACED/PROCESSING -> CANCELLED. */
+        public List<OrderStatus> allowedSources() {
+            return switch (this) {
+                case PLACED -> List.of();
+                case PROCESSING -> List.of(PLACED);
+                case SHIPPED -> List.of(PROCESSING);
+                case DELIVERED -> List.of(SHIPPED);
+                case CANCELLED -> List.of(PLACED, PROCESSING);
+            };
+        }
+
+        public boolean isOpen() {
+            return this != DELIVERED && this != CANCELLED;
+        }
     }
 
     @PrePersist
@@ -58,11 +93,27 @@ public class Order {
         this.items = items;
     }
 
-    public Double getTotalAmount() {
+    public List<OrderLineItem> getLineItems() {
+        return lineItems;
+    }
+
+    public void setLineItems(List<OrderLineItem> lineItems) {
+        this.lineItems.clear();
+        if (lineItems != null) {
+            lineItems.forEach(this::addLineItem);
+        }
+    }
+
+    public void addLineItem(OrderLineItem lineItem) {
+        lineItem.setOrder(this);
+        this.lineItems.add(lineItem);
+    }
+
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -81,4 +132,12 @@ public class Order {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,4 @@
+package com.example.orderservice.model;
+
+public record OrderExportRow(Order order, Payment payment) {
+}
@@ -0,0 +1,14 @@
+package com.example.orderservice.model;
+
+import java.time.LocalDateTime;
+
+public record OrderFilter(Order.OrderStatus status,
+                          String customerName,
+                          LocalDateTime createdFrom,
+                          LocalDateTime createdTo,
+                          String sku) {
+
+    public boolean isEmpty() {
+        return status == null && customerName == null && createdFrom == null && createdTo == null && sku == null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@Entity
+@Table(name = "order_line_items", indexes = {
+        @Index(name = "idx_order_line_items_sku", columnList = "sku"),
+        @Index(name = "idx_order_line_items_order_id", columnList = "order_id")
+})
+public class OrderLineItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_line_items_seq")
+    @SequenceGenerator(name = "order_line_items_seq", sequenceName = "order_line_items_seq", allocationSize = 50)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private Order order;
+
+    @Column(nullable = false, length = 64)
+    private String sku;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    /** Unit price in minor currency units (cents). */
+    @Column(nullable = false)
+    private long unitPriceMinor;
+
+    public OrderLineItem() {
+    }
+
+    public OrderLineItem(String sku, int quantity, long unitPriceMinor) {
+        this.sku = sku;
+        this.quantity = quantity;
+        this.unitPriceMinor = unitPriceMinor;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Order getOrder() { return order; }
+    public void setOrder(Order order) { this.order = order; }
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public long getUnitPriceMinor() { return unitPriceMinor; }
+    public void setUnitPriceMinor(long unitPriceMinor) { this.unitPriceMinor = unitPriceMinor; }
+}
@@ -0,0 +1,9 @@
+package com.example.orderservice.model;
+
+/** Partial order update: only non-null fields are written. */
+public record OrderPatch(String customerName, String items, Money totalAmount, Order.OrderStatus status) {
+
+    public boolean isEmpty() {
+        return customerName == null && items == null && totalAmount == null && status == null;
+    }
+}
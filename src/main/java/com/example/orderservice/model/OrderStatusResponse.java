@@ -0,0 +1,4 @@
+package com.example.orderservice.model;
+
+public record OrderStatusResponse(Long id, Order.OrderStatus status) {
+}
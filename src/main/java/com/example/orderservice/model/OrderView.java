@@ -0,0 +1,26 @@
+package com.example.orderservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order with its payment ({@code null} until paid), read with one left join straight into this
+ * record (see OrderRepository.findViewById); line items are left out. The flat constructor is the one
+ * the JPQL constructor expression calls.
+ */
+public record OrderView(Long id, String customerName, String items, Money totalAmount, Order.OrderStatus status,
+                        LocalDateTime createdAt, Long version, PaymentView payment) {
+
+    public OrderView(Long id, String customerName, String items, Money totalAmount, Order.OrderStatus status,
+                     LocalDateTime createdAt, Long version,
+                     Long paymentId, Payment.PaymentMethod paymentMethod, Money paymentAmount,
+                     Payment.PaymentStatus paymentStatus, String transactionReference,
+                     LocalDateTime paidAt, LocalDateTime refundedAt, Long paymentVersion) {
+        this(id, customerName, items, totalAmount, status, createdAt, version,
+                paymentId == null ? null : new PaymentView(paymentId, paymentMethod, paymentAmount, paymentStatus,
+                        transactionReference, paidAt, refundedAt, paymentVersion));
+    }
+
+    public record PaymentView(Long id, Payment.PaymentMethod paymentMethod, Money amount, Payment.PaymentStatus status,
+                              String transactionReference, LocalDateTime paidAt, LocalDateTime refundedAt, Long version) {
+    }
+}
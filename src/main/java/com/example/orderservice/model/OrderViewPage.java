@@ -0,0 +1,6 @@
+package com.example.orderservice.model;
+
+import java.util.List;
+
+public record OrderViewPage(List<OrderView> items, Long nextCursor) {
+}
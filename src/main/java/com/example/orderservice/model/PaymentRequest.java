@@ -10,15 +10,15 @@ public class PaymentRequest {
 
     @NotNull(message = "amount is required")
     @Positive(message = "amount must be positive")
-    private Double amount;
+    private Money amount;
 
     private String transactionReference;
 
     public Payment.PaymentMethod getPaymentMethod() { return paymentMethod; }
     public void setPaymentMethod(Payment.PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
 
-    public Double getAmount() { return amount; }
-    public void setAmount(Double amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public String getTransactionReference() { return transactionReference; }
     public void setTransactionReference(String transactionReference) { this.transactionReference = transactionReference; }
@@ -0,0 +1,17 @@
+package com.example.orderservice.model;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Lets {@code @Positive} apply to {@link Money}; registered with Hibernate Validator through
+ * META-INF/services/jakarta.validation.ConstraintValidator.
+ */
+public class PositiveMoneyValidator implements ConstraintValidator<Positive, Money> {
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        return value == null || value.isPositive();
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.orderservice.model;
+
+public record SkuSummary(String sku, Long orders, Long quantity, Long revenueMinor) {
+}
@@ -0,0 +1,17 @@
+package com.example.orderservice.model;
+
+import jakarta.validation.constraints.NotNull;
+
+public class StatusTransitionRequest {
+
+    @NotNull(message = "status is required")
+    private Order.OrderStatus status;
+
+    private Order.OrderStatus expectedStatus;
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public Order.OrderStatus getExpectedStatus() { return expectedStatus; }
+    public void setExpectedStatus(Order.OrderStatus expectedStatus) { this.expectedStatus = expectedStatus; }
+}
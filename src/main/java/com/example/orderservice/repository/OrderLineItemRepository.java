@@ -0,0 +1,17 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.OrderLineItem;
+import com.example.orderservice.model.SkuSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderLineItemRepository extends JpaRepository<OrderLineItem, Long> {
+
+    @Query("select new com.example.orderservice.model.SkuSummary(li.sku, count(distinct li.order.id), sum(li.quantity), "
+            + "sum(li.quantity * li.unitPriceMinor)) from OrderLineItem li where li.sku = :sku group by li.sku")
+    Optional<SkuSummary> summarizeSku(String sku);
+}
@@ -1,9 +1,105 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderUpdateRepository {
+
+    String ORDER_VIEW = "select new com.example.orderservice.model.OrderView(o.id, o.customerName, o.items, o.totalAmount,"
+            + " o.status, o.createdAt, o.version, p.id, p.paymentMethod, p.amount, p.status, p.transactionReference,"
+            + " p.paidAt, p.refundedAt, p.version) from Order o left join Payment p on p.orderId = o.id";
+
+    /** Orders that still only carry the free-form items string, in id order. */
+    @Query("select o.id from Order o where o.id > :afterId and o.items is not null and o.lineItems is empty order by o.id")
+    List<Long> findLegacyItemOrderIds(Long afterId, Limit limit);
+
+    @Override
+    @EntityGraph(attributePaths = "lineItems")
+    Optional<Order> findById(Long id);
+
+    /** The order without its line items, locked for update, for writes that must see its current state. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findByIdForUpdate(Long id);
+
+    /** Orders with their line items in one query, in id order. */
+    @Query("select o from Order o left join fetch o.lineItems where o.id in :ids order by o.id")
+    List<Order> findAllWithLineItems(Collection<Long> ids);
+
+    @Query("select o.id from Order o where o.id > :afterId order by o.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    @Query(ORDER_VIEW + " where o.id = :id")
+    Optional<OrderView> findViewById(Long id);
+
+    /** Keyset page of order views in id order. */
+    @Query(ORDER_VIEW + " where o.id > :afterId order by o.id")
+    List<OrderView> findViews(Long afterId, Limit limit);
+
+    @Query(ORDER_VIEW + " where o.customerName = :customerName and o.id > :afterId order by o.id")
+    List<OrderView> findViewsByCustomerName(String customerName, Long afterId, Limit limit);
+
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<Order.OrderStatus> findStatusById(Long id);
+
+    @Query("select o.customerName from Order o where o.id = :id")
+    Optional<String> findCustomerNameById(Long id);
+
+    @Query("select o.version from Order o where o.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select o.totalAmount from Order o where o.id = :id")
+    Optional<Money> findTotalAmountById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :target, o.version = o.version + 1 where o.id = :id and o.status = :source")
+    int updateStatus(Long id, Order.OrderStatus source, Order.OrderStatus target);
+
+    @Modifying
+    @Query("update Order o set o.status = :target, o.version = o.version + 1 where o.id in :ids")
+    int updateStatuses(Collection<Long> ids, Order.OrderStatus target);
+
+    /** Bulk refund: id, customer name, status and total of the given orders, locked for update. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.id, o.customerName, o.status, o.totalAmount from Order o where o.id in :ids order by o.id")
+    List<Object[]> lockRefundEntries(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Order o where o.id = :id")
+    int deleteOrderById(Long id);
+
+    /** Rows for {@code OrderIndex}: id, customer name and status only, no entity hydration. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select o.id, o.customerName, o.status from Order o")
+    Stream<Object[]> streamIndexEntries();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select o.status, o.totalAmount, o.createdAt from Order o")
+    Stream<Object[]> streamAnalyticsEntries();
+
+    @Query("select o.id, o.status, o.totalAmount from Order o where o.id in :ids")
+    List<Object[]> findAnalyticsStates(Collection<Long> ids);
 }
@@ -0,0 +1,57 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderFilter;
+import com.example.orderservice.model.OrderLineItem;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * Keyset predicate: only rows with an id greater than the cursor, so the database
+     * seeks straight to the next page instead of skipping an offset.
+     */
+    public static Specification<Order> matching(OrderFilter filter, Long afterId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (afterId != null) {
+                predicates.add(cb.greaterThan(root.get("id"), afterId));
+            }
+            if (filter.status() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
+            }
+            if (filter.customerName() != null) {
+                predicates.add(cb.equal(root.get("customerName"), filter.customerName()));
+            }
+            if (filter.createdFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.createdFrom()));
+            }
+            if (filter.createdTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.createdTo()));
+            }
+            if (filter.sku() != null) {
+                // EXISTS on the sku index rather than a join, so an order with the SKU on several lines appears once
+                Subquery<Long> lineItems = query.subquery(Long.class);
+                Root<OrderLineItem> lineItem = lineItems.from(OrderLineItem.class);
+                lineItems.select(lineItem.get("id"))
+                        .where(cb.equal(lineItem.get("order"), root), cb.equal(lineItem.get("sku"), filter.sku()));
+                predicates.add(cb.exists(lineItems));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Order> statusIn(Collection<Order.OrderStatus> statuses) {
+        return (root, query, cb) -> statuses.isEmpty() ? cb.conjunction() : root.get("status").in(statuses);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderPatch;
+
+import java.util.Collection;
+
+public interface OrderUpdateRepository {
+
+    /**
+     * Applies the non-null fields of {@code patch} in a single conditional UPDATE and bumps the
+     * version. When {@code allowedStatuses} is not null the row must currently be in one of them.
+     *
+     * @return the number of rows updated (0 or 1)
+     */
+    int patch(Long id, OrderPatch patch, Collection<Order.OrderStatus> allowedStatuses);
+}
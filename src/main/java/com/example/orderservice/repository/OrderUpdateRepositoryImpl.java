@@ -0,0 +1,54 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderPatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class OrderUpdateRepositoryImpl implements OrderUpdateRepository {
+
+    private final EntityManager entityManager;
+
+    OrderUpdateRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, OrderPatch patch, Collection<Order.OrderStatus> allowedStatuses) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Order> update = cb.createCriteriaUpdate(Order.class);
+        Root<Order> root = update.from(Order.class);
+
+        if (patch.customerName() != null) {
+            update.set(root.<String>get("customerName"), patch.customerName());
+        }
+        if (patch.items() != null) {
+            update.set(root.<String>get("items"), patch.items());
+        }
+        if (patch.totalAmount() != null) {
+            update.set(root.<Money>get("totalAmount"), patch.totalAmount());
+        }
+        if (patch.status() != null) {
+            update.set(root.<Order.OrderStatus>get("status"), patch.status());
+        }
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("id"), id));
+        if (allowedStatuses != null) {
+            predicates.add(root.get("status").in(allowedStatuses));
+        }
+        update.where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
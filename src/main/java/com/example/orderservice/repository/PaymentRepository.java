@@ -1,15 +1,66 @@
 package com.example.orderservice.repository;
 
 import com.example.orderservice.model.Payment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByOrderId(Long orderId);
 
-    boolean existsByOrderId(Long orderId);
+    List<Payment> findByOrderIdIn(Collection<Long> orderIds);
+
+    /** One row of the order's status and its payment (null if unpaid), or no row if the order does not exist. */
+    @Query("select o.status, p from Order o left join Payment p on p.orderId = o.id where o.id = :orderId")
+    List<Object[]> findWithOrderStatus(Long orderId);
+
+    @Query("select p.version from Payment p where p.orderId = :orderId")
+    Optional<Long> findVersionByOrderId(Long orderId);
+
+    List<Payment> findByStatusAndPaidAtBefore(Payment.PaymentStatus status, LocalDateTime before, Limit limit);
+
+    /**
+     * Settlement claim: those of the payments still PENDING, locked for update. Rows another worker
+     * holds are skipped rather than waited for; by the time it commits they are settled. Native, as
+     * Hibernate's H2 dialect drops SKIP LOCKED; the clause is the same on PostgreSQL and MySQL 8.
+     */
+    @Query(value = "select * from payments where id in :ids and status = 'PENDING' order by id for update skip locked",
+            nativeQuery = true)
+    List<Payment> lockPendingForSettlement(Collection<Long> ids);
+
+    /** Batched settlement write; rows no longer in {@code from} are left alone. */
+    @Modifying
+    @Query("update Payment p set p.status = :to, p.paidAt = :settledAt, p.version = p.version + 1 where p.id in :ids and p.status = :from")
+    int settle(Collection<Long> ids, Payment.PaymentStatus from, Payment.PaymentStatus to, LocalDateTime settledAt);
+
+    /** Bulk refund: order id, status, method and amount of the orders' payments, locked for update. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p.orderId, p.status, p.paymentMethod, p.amount from Payment p where p.orderId in :orderIds order by p.orderId")
+    List<Object[]> lockRefundEntries(Collection<Long> orderIds);
+
+    @Modifying
+    @Query("update Payment p set p.status = :to, p.refundedAt = :refundedAt, p.version = p.version + 1 where p.orderId in :orderIds and p.status = :from")
+    int refund(Collection<Long> orderIds, Payment.PaymentStatus from, Payment.PaymentStatus to, LocalDateTime refundedAt);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p.status, p.paymentMethod, p.amount, p.paidAt, p.refundedAt from Payment p where p.status in :statuses")
+    Stream<Object[]> streamAnalyticsEntries(Collection<Payment.PaymentStatus> statuses);
+
+    @Query("select p.orderId, p.status from Payment p where p.orderId in :orderIds")
+    List<Object[]> findStatusesByOrderIds(Collection<Long> orderIds);
 }
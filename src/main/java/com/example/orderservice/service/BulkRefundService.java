@@ -0,0 +1,202 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.event.OrderSnapshot;
+import com.example.orderservice.event.PaymentChangedEvent;
+import com.example.orderservice.model.BulkRefundRequest;
+import com.example.orderservice.model.BulkRefundResponse;
+import com.example.orderservice.model.BulkRefundResult;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OrderSpecifications;
+import com.example.orderservice.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Refunds (or, when nothing was captured, cancels) many orders at once. Orders are processed in
+ * chunks of {@code orders.bulk.refund.chunk-size}, one transaction per chunk: the chunk's orders and
+ * payments are read and locked with one query each, classified in memory, and written with one
+ * UPDATE on payments and one on orders. Up to {@code orders.bulk.refund.parallelism} chunks run at
+ * once across all requests; a failing chunk is rolled back on its own and reported as FAILED, while
+ * the other chunks' results are still returned.
+ *
+ * <p>Outcomes follow the single-order refund: a SUCCESS payment is refunded and its order cancelled
+ * whatever the order status. Orders without a captured payment are cancelled if still PLACED or
+ * PROCESSING.
+ */
+@Service
+public class BulkRefundService {
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderCache orderCache;
+    private final ApplicationEventPublisher events;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxItems;
+    private final ExecutorService executor;
+
+    public BulkRefundService(OrderRepository orderRepository,
+                             PaymentRepository paymentRepository,
+                             OrderCache orderCache,
+                             ApplicationEventPublisher events,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${orders.bulk.refund.chunk-size:500}") int chunkSize,
+                             @Value("${orders.bulk.refund.parallelism:4}") int parallelism,
+                             @Value("${orders.bulk.max-items:10000}") int maxItems,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderCache = orderCache;
+        this.events = events;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+        this.executor = Executors.newFixedThreadPool(parallelism,
+                (virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true)).name("bulk-refund-", 0).factory());
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /** Results are in request order for explicit ids (duplicates reported once) and in id order for a filter. */
+    public BulkRefundResponse refund(BulkRefundRequest request) {
+        List<Long> ids;
+        boolean truncated = false;
+        if (request.hasOrderIds()) {
+            ids = List.copyOf(new LinkedHashSet<>(request.orderIds()));
+        } else {
+            ids = findIds(request);
+            if (ids.size() > maxItems) {
+                ids = ids.subList(0, maxItems);
+                truncated = true;
+            }
+        }
+        List<CompletableFuture<List<BulkRefundResult>>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            // Any other failure of a chunk is reported on its ids too, so the other chunks' results survive.
+            chunks.add(CompletableFuture.supplyAsync(() -> process(chunk), executor)
+                    .exceptionally(e -> failed(chunk)));
+        }
+        Map<Long, BulkRefundResult> byId = new HashMap<>();
+        chunks.forEach(chunk -> chunk.join().forEach(result -> byId.put(result.orderId(), result)));
+        return BulkRefundResponse.of(ids.stream().map(byId::get).toList(), truncated);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<Long> findIds(BulkRefundRequest request) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        query.select(root.get("id"))
+                .where(OrderSpecifications.matching(request.filter(), null).toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(maxItems + 1).getResultList();
+    }
+
+    private List<BulkRefundResult> process(List<Long> ids) {
+        List<BulkRefundResult> results = new ArrayList<>(ids.size());
+        List<Long> changed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> apply(ids, results, changed));
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            return failed(ids);
+        }
+        changed.forEach(id -> {
+            orderCache.evictOrder(id);
+            orderCache.evictPayment(id);
+        });
+        return results;
+    }
+
+    private static List<BulkRefundResult> failed(List<Long> ids) {
+        return ids.stream().map(id -> BulkRefundResult.failed(id, "UPDATE_FAILED")).toList();
+    }
+
+    private void apply(List<Long> ids, List<BulkRefundResult> results, List<Long> changed) {
+        // Orders before payments, in id order, as the single-order paths do, to keep lock order consistent.
+        Map<Long, Object[]> orders = new HashMap<>();
+        orderRepository.lockRefundEntries(ids).forEach(row -> orders.put((Long) row[0], row));
+        Map<Long, Object[]> payments = new HashMap<>();
+        paymentRepository.lockRefundEntries(ids).forEach(row -> payments.put((Long) row[0], row));
+
+        List<Long> refunds = new ArrayList<>();
+        List<Long> cancellations = new ArrayList<>();
+        for (Long id : ids) {
+            Object[] order = orders.get(id);
+            Object[] payment = payments.get(id);
+            Payment.PaymentStatus paymentStatus = payment == null ? null : (Payment.PaymentStatus) payment[1];
+            Order.OrderStatus orderStatus = order == null ? null : (Order.OrderStatus) order[2];
+            if (order == null) {
+                results.add(BulkRefundResult.of(id, BulkRefundResult.Outcome.NOT_FOUND));
+            } else if (paymentStatus == Payment.PaymentStatus.SUCCESS) {
+                refunds.add(id);
+                results.add(BulkRefundResult.of(id, BulkRefundResult.Outcome.REFUNDED));
+            } else if (paymentStatus == Payment.PaymentStatus.PENDING || paymentStatus == Payment.PaymentStatus.REFUNDED) {
+                results.add(BulkRefundResult.notRefundable(id, "PAYMENT_" + paymentStatus));
+            } else if (Order.OrderStatus.CANCELLED.allowedSources().contains(orderStatus)) {
+                cancellations.add(id);
+                results.add(BulkRefundResult.of(id, BulkRefundResult.Outcome.CANCELLED));
+            } else {
+                results.add(BulkRefundResult.notRefundable(id, "ORDER_" + orderStatus));
+            }
+        }
+
+        if (!refunds.isEmpty()) {
+            paymentRepository.refund(refunds, Payment.PaymentStatus.SUCCESS, Payment.PaymentStatus.REFUNDED,
+                    LocalDateTime.now());
+        }
+        changed.addAll(refunds);
+        changed.addAll(cancellations);
+        if (changed.isEmpty()) {
+            return;
+        }
+        orderRepository.updateStatuses(changed, Order.OrderStatus.CANCELLED);
+        for (Long id : changed) {
+            Object[] order = orders.get(id);
+            String customerName = (String) order[1];
+            Money total = (Money) order[3];
+            events.publishEvent(OrderChangedEvent.updated(id,
+                    new OrderSnapshot(customerName, (Order.OrderStatus) order[2], total),
+                    new OrderSnapshot(customerName, Order.OrderStatus.CANCELLED, total)));
+        }
+        for (Long id : refunds) {
+            Object[] payment = payments.get(id);
+            events.publishEvent(new PaymentChangedEvent(id, Payment.PaymentStatus.SUCCESS, Payment.PaymentStatus.REFUNDED,
+                    (Payment.PaymentMethod) payment[2], (Money) payment[3]));
+        }
+    }
+}
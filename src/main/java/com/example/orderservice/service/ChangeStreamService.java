@@ -0,0 +1,256 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.ChangeFilter;
+import com.example.orderservice.model.ChangeNotification;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes outbox rows to Server-Sent Event subscribers. One scheduled reader polls outbox_events
+ * past its cursor and fans each row out to the subscribers' bounded buffers; sender tasks drain
+ * the buffers, so a slow client never holds up the reader or other clients. A subscriber whose
+ * buffer overflows is disconnected and resumes with Last-Event-ID, which replays the missed rows
+ * from the table.
+ *
+ * <p>Outbox ids are handed out before commit, so a row can become visible after a higher id. The
+ * reader waits up to {@code changes.gap-timeout} for a missing id before moving past it; such a
+ * late row is then only delivered to clients that resume from before it.
+ */
+@Service
+public class ChangeStreamService implements MeterBinder {
+
+    private static final int READ_BATCH = 500;
+    private static final Object HEARTBEAT = new Object();
+
+    private final OutboxEventRepository outboxRepository;
+    private final int bufferSize;
+    private final Duration gapTimeout;
+    private final Duration emitterTimeout;
+    private final Duration retention;
+    private final ExecutorService senders;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Object fanOutLock = new Object();
+
+    /** Offset of the last row handed to subscribers; -1 until the first poll. */
+    private volatile long cursor = -1;
+    private LocalDateTime gapSince;
+
+    public ChangeStreamService(OutboxEventRepository outboxRepository,
+                               @Value("${changes.subscriber-buffer:1000}") int bufferSize,
+                               @Value("${changes.gap-timeout:PT2S}") Duration gapTimeout,
+                               @Value("${changes.emitter-timeout:PT30M}") Duration emitterTimeout,
+                               @Value("${changes.retention:P1D}") Duration retention,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.outboxRepository = outboxRepository;
+        this.bufferSize = bufferSize;
+        this.gapTimeout = gapTimeout;
+        this.emitterTimeout = emitterTimeout;
+        this.retention = retention;
+        this.senders = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-stream-", 0).factory())
+                : Executors.newCachedThreadPool(Thread.ofPlatform().daemon(true).name("change-stream-", 0).factory());
+    }
+
+    /**
+     * @param resumeAfter last offset the client has seen (Last-Event-ID); null for live changes only
+     */
+    public SseEmitter subscribe(ChangeFilter filter, Long resumeAfter) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber;
+        synchronized (fanOutLock) {
+            long current = currentCursor();
+            subscriber = new Subscriber(emitter, filter, resumeAfter == null ? current : Math.min(resumeAfter, current), current);
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.schedule();
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${changes.poll-interval:200ms}")
+    public void poll() {
+        long from = currentCursor();
+        if (subscribers.isEmpty()) {
+            // Nobody listening: skip ahead without loading rows; resuming clients read the table anyway.
+            synchronized (fanOutLock) {
+                if (subscribers.isEmpty()) {
+                    cursor = Math.max(cursor, outboxRepository.findMaxId());
+                    gapSince = null;
+                    return;
+                }
+            }
+        }
+        List<OutboxEvent> rows = outboxRepository.findByIdGreaterThanOrderById(from, Limit.of(READ_BATCH));
+        synchronized (fanOutLock) {
+            for (OutboxEvent row : rows) {
+                if (row.getId() != cursor + 1) {
+                    LocalDateTime now = LocalDateTime.now();
+                    if (gapSince == null) {
+                        gapSince = now;
+                    }
+                    if (gapSince.plus(gapTimeout).isAfter(now)) {
+                        return;
+                    }
+                }
+                gapSince = null;
+                cursor = row.getId();
+                ChangeNotification change = ChangeNotification.of(row);
+                subscribers.forEach(subscriber -> subscriber.offer(change));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    @Scheduled(fixedDelayString = "${changes.purge-interval:PT10M}")
+    public void purgeExpired() {
+        outboxRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("changes.subscribers", subscribers, Set::size)
+                .description("Open change-stream connections")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private long currentCursor() {
+        if (cursor < 0) {
+            synchronized (fanOutLock) {
+                if (cursor < 0) {
+                    cursor = outboxRepository.findMaxId();
+                }
+            }
+        }
+        return cursor;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ChangeFilter filter;
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        /** Rows in (lastSent, replayTo] come from the table; later ones arrive through the buffer. */
+        private final long replayTo;
+        private long lastSent;
+
+        Subscriber(SseEmitter emitter, ChangeFilter filter, long lastSent, long replayTo) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.lastSent = lastSent;
+            this.replayTo = replayTo;
+        }
+
+        void offer(Object item) {
+            if (item instanceof ChangeNotification change && !filter.matches(change)) {
+                return;
+            }
+            if (!buffer.offer(item)) {
+                if (item != HEARTBEAT) {
+                    // Disconnect; the client resumes from its last event id and reads the gap from the table.
+                    close();
+                    emitter.complete();
+                }
+                return;
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void close() {
+            closed.set(true);
+            subscribers.remove(this);
+        }
+
+        private void drain() {
+            try {
+                replay();
+                Object item;
+                while (!closed.get() && (item = buffer.poll()) != null) {
+                    if (item == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } else {
+                        send((ChangeNotification) item);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void replay() throws IOException {
+            while (lastSent < replayTo) {
+                List<OutboxEvent> rows = outboxRepository.findByIdGreaterThanAndIdLessThanEqualOrderById(
+                        lastSent, replayTo, Limit.of(READ_BATCH));
+                if (rows.isEmpty()) {
+                    lastSent = replayTo;
+                    return;
+                }
+                for (OutboxEvent row : rows) {
+                    ChangeNotification change = ChangeNotification.of(row);
+                    if (filter.matches(change)) {
+                        send(change);
+                    }
+                    lastSent = row.getId();
+                }
+            }
+        }
+
+        private void send(ChangeNotification change) throws IOException {
+            if (change.offset() <= lastSent) {
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(change.offset()))
+                    .name(change.type())
+                    .data(change, MediaType.APPLICATION_JSON));
+            lastSent = change.offset();
+        }
+    }
+}
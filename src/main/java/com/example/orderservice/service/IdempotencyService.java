@@ -0,0 +1,164 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.exception.IdempotencyKeyReusedException;
+import com.example.orderservice.model.IdempotencyRecord;
+import com.example.orderservice.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Replays the first successful response for a repeated Idempotency-Key. Keys are scoped to the
+ * order, remembered in memory and in the idempotency_records table, and expire after the TTL.
+ * Each key remembers a hash of its request, and reusing the key for a different request is
+ * rejected. Only one request per key runs at a time: a retry that arrives while the original is
+ * still running waits for it and then replays its result.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> responses;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${payments.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${payments.idempotency.max-entries:100000}") long maxEntries) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.responses = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * @param request the request body; its hash is stored with the response
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public ResponseEntity<?> execute(Long orderId, String idempotencyKey, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        String key = orderId + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        while (true) {
+            StoredResponse stored = lookup(key);
+            if (stored != null) {
+                return stored.replay(idempotencyKey, requestHash);
+            }
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                running.join();
+                continue;
+            }
+            try {
+                // The previous holder may have stored its response just before we got in
+                stored = lookup(key);
+                if (stored != null) {
+                    return stored.replay(idempotencyKey, requestHash);
+                }
+                ResponseEntity<?> response = action.get();
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    remember(key, requestHash, response);
+                }
+                return response;
+            } finally {
+                inFlight.remove(key, mine);
+                mine.complete(null);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payments.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private StoredResponse lookup(String key) {
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            return stored;
+        }
+        return recordRepository.findById(key)
+                .filter(record -> record.getCreatedAt().isAfter(LocalDateTime.now().minus(ttl)))
+                .map(record -> {
+                    StoredResponse restored = new StoredResponse(record.getRequestHash(), record.getStatusCode(),
+                            record.getResponseBody());
+                    responses.put(key, restored);
+                    return restored;
+                })
+                .orElse(null);
+    }
+
+    /** Stores the response, failing the request if it cannot be, since a retry would then run the action again. */
+    private void remember(String key, String requestHash, ResponseEntity<?> response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store the response for idempotency key " + key, e);
+        }
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(), body);
+        responses.put(key, stored);
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(key);
+        record.setRequestHash(requestHash);
+        record.setStatusCode(stored.statusCode());
+        record.setResponseBody(body);
+        record.setCreatedAt(LocalDateTime.now());
+        try {
+            recordRepository.save(record);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same key first; its response is equivalent. Anything
+            // else (a constraint on the row itself) must not pass silently.
+            if (!recordRepository.existsById(key)) {
+                responses.invalidate(key);
+                throw e;
+            }
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] canonical = request == null ? new byte[0] : objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash the request", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int statusCode, String body) {
+
+        ResponseEntity<?> replay(String idempotencyKey, String requestHash) {
+            // Empty for records stored before request hashes were kept (V2 schema script)
+            if (!this.requestHash.isEmpty() && !this.requestHash.equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            return ResponseEntity.status(statusCode)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        }
+    }
+}
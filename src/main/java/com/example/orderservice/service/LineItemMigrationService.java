@@ -0,0 +1,103 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLineItem;
+import com.example.orderservice.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts orders that only have the free-form items string into line items. Each comma-separated
+ * token becomes a SKU ("2x Mouse" and "Mouse x2" set the quantity). Legacy rows carry no unit
+ * prices, so the tokens get a unit price of 0 and the whole order total is kept on one
+ * {@value #UNALLOCATED_SKU} line: totals stay exact and SKU quantities become queryable.
+ */
+@Service
+public class LineItemMigrationService {
+
+    public static final String UNALLOCATED_SKU = "LEGACY-UNALLOCATED";
+
+    private static final Pattern QUANTITY_PREFIX = Pattern.compile("^(\\d+)\\s*x\\s+(.+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern QUANTITY_SUFFIX = Pattern.compile("^(.+?)\\s+x\\s*(\\d+)$", Pattern.CASE_INSENSITIVE);
+
+    private final OrderRepository orderRepository;
+    private final OrderCache orderCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final boolean migrateOnStartup;
+
+    public LineItemMigrationService(OrderRepository orderRepository,
+                                    OrderCache orderCache,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${orders.line-items.migration-batch-size:500}") int batchSize,
+                                    @Value("${orders.line-items.migrate-on-startup:false}") boolean migrateOnStartup) {
+        this.orderRepository = orderRepository;
+        this.orderCache = orderCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            migrateLegacyItems();
+        }
+    }
+
+    public long migrateLegacyItems() {
+        long migrated = 0;
+        long after = 0;
+        while (true) {
+            List<Long> ids = orderRepository.findLegacyItemOrderIds(after, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                return migrated;
+            }
+            transactionTemplate.executeWithoutResult(status -> orderRepository.findAllWithLineItems(ids).forEach(this::convert));
+            ids.forEach(orderCache::evictOrder);
+            migrated += ids.size();
+            after = ids.get(ids.size() - 1);
+        }
+    }
+
+    private void convert(Order order) {
+        for (String token : order.getItems().split(",")) {
+            String name = token.trim();
+            int quantity = 1;
+            Matcher prefix = QUANTITY_PREFIX.matcher(name);
+            Matcher suffix = QUANTITY_SUFFIX.matcher(name);
+            try {
+                if (prefix.matches()) {
+                    quantity = Integer.parseInt(prefix.group(1));
+                    name = prefix.group(2);
+                } else if (suffix.matches()) {
+                    quantity = Integer.parseInt(suffix.group(2));
+                    name = suffix.group(1);
+                }
+            } catch (NumberFormatException e) {
+                // More digits than an int holds: not a quantity, so the item is kept whole like any other
+            }
+            String sku = toSku(name);
+            if (!sku.isEmpty() && quantity > 0) {
+                order.addLineItem(new OrderLineItem(sku, quantity, 0));
+            }
+        }
+        long totalMinor = order.getTotalAmount() == null ? 0 : order.getTotalAmount().minor();
+        order.addLineItem(new OrderLineItem(UNALLOCATED_SKU, 1, totalMinor));
+    }
+
+    private static String toSku(String name) {
+        String sku = name.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]+", "-").replaceAll("^-+|-+$", "");
+        return sku.length() > 64 ? sku.substring(0, 64) : sku;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.exception.OrderValidationException;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLineItem;
+
+import java.util.StringJoiner;
+
+public final class LineItemPricing {
+
+    private LineItemPricing() {
+    }
+
+    /**
+     * For orders with line items the total is computed here from quantity x unit price (minor units);
+     * a client-supplied totalAmount must agree to the cent. The legacy items string is filled in as a
+     * readable summary when the client did not send one.
+     */
+    public static void applyTotals(Order order) {
+        if (order.getLineItems().isEmpty()) {
+            return;
+        }
+        long totalMinor = 0;
+        StringJoiner summary = new StringJoiner(", ");
+        try {
+            for (OrderLineItem lineItem : order.getLineItems()) {
+                validate(lineItem);
+                totalMinor = Math.addExact(totalMinor, Math.multiplyExact(lineItem.getQuantity(), lineItem.getUnitPriceMinor()));
+                summary.add(lineItem.getQuantity() + "x " + lineItem.getSku());
+            }
+        } catch (ArithmeticException e) {
+            throw new OrderValidationException("INVALID_LINE_ITEM", "Line item total overflows");
+        }
+        Money total = Money.ofMinor(totalMinor);
+        if (order.getTotalAmount() != null && !order.getTotalAmount().equals(total)) {
+            throw new OrderValidationException("TOTAL_MISMATCH",
+                    "totalAmount " + order.getTotalAmount() + " does not match line items total " + total);
+        }
+        order.setTotalAmount(total);
+        if (order.getItems() == null || order.getItems().isBlank()) {
+            order.setItems(summary.toString());
+        }
+    }
+
+    private static void validate(OrderLineItem lineItem) {
+        if (lineItem.getSku() == null || lineItem.getSku().isBlank() || lineItem.getSku().length() > 64) {
+            throw new OrderValidationException("INVALID_LINE_ITEM", "Line item sku is required (max 64 characters)");
+        }
+        if (lineItem.getQuantity() <= 0) {
+            throw new OrderValidationException("INVALID_LINE_ITEM", "Line item quantity must be positive for sku " + lineItem.getSku());
+        }
+        if (lineItem.getUnitPriceMinor() < 0) {
+            throw new OrderValidationException("INVALID_LINE_ITEM", "Line item unit price must not be negative for sku " + lineItem.getSku());
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.event.OrderSnapshot;
+import com.example.orderservice.event.PaymentChangedEvent;
+import com.example.orderservice.model.AnalyticsReport;
+import com.example.orderservice.model.AnalyticsSummary;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.AnalyticsSummaryRepository;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Order and payment totals kept in {@link LongAdder}s (minor units) and updated from change events,
+ * so reading them never scans orders or payments. The counters are written to analytics_summary
+ * every {@code analytics.checkpoint-interval} and on shutdown. At startup a checkpoint left by a
+ * clean shutdown is loaded; otherwise the counters are rebuilt from the tables.
+ *
+ * <p>Changes whose effect is not known exactly (deletes, a PATCHed amount whose previous value was
+ * not cached) mark the counters for a rebuild at the next checkpoint.
+ *
+ * <p>A rebuild scans in one snapshot transaction, so a change committed while it runs may or may
+ * not be in the scan. Such changes are held back and, once the scan is done, checked against the
+ * same snapshot: those it already reflects are dropped, the rest are applied to the rebuilt counters.
+ */
+@Service
+public class OrderAnalytics {
+
+    private static final String CLEAN_SHUTDOWN = "checkpoint.clean";
+    private static final String STATUS = "status.";
+    private static final String METHOD = "method.";
+    private static final String REFUNDS = "refunds";
+    private static final String HOUR_ORDERS = "hour.orders.";
+    private static final String HOUR_PAYMENTS = "hour.payments.";
+    private static final String HOUR_REFUNDS = "hour.refunds.";
+    private static final int SNAPSHOT_CHUNK = 1000;
+    private static final List<Payment.PaymentStatus> CAPTURED =
+            List.of(Payment.PaymentStatus.SUCCESS, Payment.PaymentStatus.REFUNDED);
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final AnalyticsSummaryRepository summaryRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    /** One snapshot for a whole rebuild, so held changes are judged against exactly what was scanned. */
+    private final TransactionTemplate scanTemplate;
+    private final Duration hourlyRetention;
+
+    private volatile Counters counters = new Counters();
+    /** Changes recorded while a rebuild scans the tables; replayed unless the scan covered them. */
+    private volatile Queue<Change> held;
+    /** Shared by recorders, exclusive for the rebuild's final hand-off, so no change is lost in between. */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile boolean rebuildPending;
+    private volatile LocalDateTime checkpointedAt;
+
+    public OrderAnalytics(OrderRepository orderRepository,
+                          PaymentRepository paymentRepository,
+                          AnalyticsSummaryRepository summaryRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${analytics.hourly-retention:P7D}") Duration hourlyRetention) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.summaryRepository = summaryRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scanTemplate = new TransactionTemplate(transactionManager);
+        this.scanTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.scanTemplate.setReadOnly(true);
+        this.hourlyRetention = hourlyRetention;
+    }
+
+    public AnalyticsReport report() {
+        return counters.report(checkpointedAt, rebuildPending);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> record(new OrderCreated(event.orderId(), event.after().status(),
+                    minor(event.after().totalAmount()), LocalDateTime.now()));
+            case UPDATED -> onOrderUpdated(event.orderId(), event.before(), event.after());
+            case DELETED -> rebuildPending = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        long amount = minor(event.amount());
+        LocalDateTime now = LocalDateTime.now();
+        if (event.status() == Payment.PaymentStatus.SUCCESS && event.previousStatus() != Payment.PaymentStatus.SUCCESS) {
+            record(new PaymentCaptured(event.orderId(), event.paymentMethod(), amount, now));
+        } else if (event.status() == Payment.PaymentStatus.REFUNDED
+                && event.previousStatus() != Payment.PaymentStatus.REFUNDED) {
+            record(new Refunded(event.orderId(), amount, now));
+        }
+    }
+
+    /** Recomputes every counter from the orders and payments tables. */
+    public synchronized void rebuild() {
+        rebuildPending = false;
+        Queue<Change> changes = new ConcurrentLinkedQueue<>();
+        held = changes;
+        Counters rebuilt = new Counters();
+        try {
+            scanTemplate.executeWithoutResult(tx -> {
+                try (Stream<Object[]> rows = orderRepository.streamAnalyticsEntries()) {
+                    rows.forEach(row -> rebuilt.orderCreated((Order.OrderStatus) row[0], minor((Money) row[1]),
+                            (LocalDateTime) row[2]));
+                }
+                try (Stream<Object[]> rows = paymentRepository.streamAnalyticsEntries(CAPTURED)) {
+                    rows.forEach(row -> {
+                        long amount = minor((Money) row[2]);
+                        rebuilt.paymentCaptured((Payment.PaymentMethod) row[1], amount, (LocalDateTime) row[3]);
+                        if (row[0] == Payment.PaymentStatus.REFUNDED) {
+                            rebuilt.refunded(amount, (LocalDateTime) row[4]);
+                        }
+                    });
+                }
+                // Most held changes are replayed here; only those arriving meanwhile wait for the lock.
+                replayUncovered(changes, rebuilt);
+                swapLock.writeLock().lock();
+                try {
+                    replayUncovered(changes, rebuilt);
+                    rebuilt.prune(cutoff());
+                    counters = rebuilt;
+                    held = null;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuildPending = true;
+            throw e;
+        } finally {
+            held = null;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void restore() {
+        List<AnalyticsSummary> rows = summaryRepository.findAll();
+        boolean clean = rows.stream().anyMatch(row -> row.getMetric().equals(CLEAN_SHUTDOWN) && row.getCount() == 1);
+        if (clean) {
+            Counters restored = Counters.from(rows);
+            // Writes that raced application startup were counted on top of zero.
+            restored.add(counters);
+            counters = restored;
+        } else {
+            rebuild();
+        }
+        // From here on the stored checkpoint only counts as clean again after an orderly shutdown.
+        write(false);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.checkpoint-interval:PT1M}",
+            initialDelayString = "${analytics.checkpoint-interval:PT1M}")
+    public synchronized void checkpoint() {
+        if (rebuildPending) {
+            rebuild();
+        }
+        counters.prune(cutoff());
+        write(false);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void checkpointOnShutdown() {
+        write(true);
+    }
+
+    private void onOrderUpdated(Long orderId, OrderSnapshot before, OrderSnapshot after) {
+        if (after.status() == null && after.totalAmount() == null) {
+            return;
+        }
+        // Writers put the amount in the event when only the status changed; without it the effect is unknown.
+        if (before.status() == null || before.totalAmount() == null) {
+            rebuildPending = true;
+            return;
+        }
+        long previous = minor(before.totalAmount());
+        long current = after.totalAmount() != null ? minor(after.totalAmount()) : previous;
+        Order.OrderStatus status = after.status() != null ? after.status() : before.status();
+        record(new OrderChanged(orderId, before.status(), status, previous, current));
+    }
+
+    private void record(Change change) {
+        swapLock.readLock().lock();
+        try {
+            change.apply(counters);
+            Queue<Change> scanning = held;
+            if (scanning != null) {
+                scanning.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /** Applies the held changes the scan did not see, judged by re-reading their rows in the scan's snapshot. */
+    private void replayUncovered(Queue<Change> changes, Counters rebuilt) {
+        List<Change> batch = new ArrayList<>();
+        for (Change change; (change = changes.poll()) != null; ) {
+            batch.add(change);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Long> ids = batch.stream().map(Change::orderId).distinct().toList();
+        Scanned scanned = new Scanned(new HashMap<>(), new HashMap<>());
+        for (int from = 0; from < ids.size(); from += SNAPSHOT_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + SNAPSHOT_CHUNK));
+            orderRepository.findAnalyticsStates(chunk).forEach(row -> scanned.orders().put((Long) row[0],
+                    new ScannedOrder((Order.OrderStatus) row[1], minor((Money) row[2]))));
+            paymentRepository.findStatusesByOrderIds(chunk).forEach(row ->
+                    scanned.payments().put((Long) row[0], (Payment.PaymentStatus) row[1]));
+        }
+        for (Change change : batch) {
+            if (!change.coveredBy(scanned)) {
+                change.apply(rebuilt);
+            }
+        }
+    }
+
+    private void write(boolean clean) {
+        List<AnalyticsSummary> rows = counters.toSummaries();
+        rows.add(new AnalyticsSummary(CLEAN_SHUTDOWN, clean ? 1 : 0, 0));
+        transactionTemplate.executeWithoutResult(tx -> {
+            summaryRepository.deleteAllInBatch();
+            rows.forEach(entityManager::persist);
+        });
+        checkpointedAt = LocalDateTime.now();
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(hourlyRetention);
+    }
+
+    private static long minor(Money amount) {
+        return amount == null ? 0 : amount.minor();
+    }
+
+    /** Whether an order can get from {@code from} to {@code to} in zero or more transitions. */
+    private static boolean reachable(Order.OrderStatus from, Order.OrderStatus to) {
+        return from == to || to.allowedSources().stream().anyMatch(source -> reachable(from, source));
+    }
+
+    /** Orders and payment statuses as the rebuild's snapshot saw them, for the ids of held changes. */
+    private record Scanned(Map<Long, ScannedOrder> orders, Map<Long, Payment.PaymentStatus> payments) {
+    }
+
+    private record ScannedOrder(Order.OrderStatus status, long amount) {
+    }
+
+    /** One counted change: applied to the live counters and, during a rebuild, held for replay. */
+    private sealed interface Change {
+
+        Long orderId();
+
+        void apply(Counters counters);
+
+        /** Whether the snapshot already reflects this change. */
+        boolean coveredBy(Scanned scanned);
+    }
+
+    private record OrderCreated(Long orderId, Order.OrderStatus status, long amount, LocalDateTime at) implements Change {
+
+        public void apply(Counters counters) {
+            counters.orderCreated(status, amount, at);
+        }
+
+        public boolean coveredBy(Scanned scanned) {
+            return scanned.orders().containsKey(orderId);
+        }
+    }
+
+    private record OrderChanged(Long orderId, Order.OrderStatus from, Order.OrderStatus to, long previous, long current)
+            implements Change {
+
+        public void apply(Counters counters) {
+            counters.byStatus.get(from).add(-1, -previous);
+            counters.byStatus.get(to).add(1, current);
+        }
+
+        public boolean coveredBy(Scanned scanned) {
+            ScannedOrder order = scanned.orders().get(orderId);
+            if (order == null) {
+                return false;
+            }
+            // Statuses only move forward, so a scan that saw the target or a later status saw this change.
+            return from != to ? reachable(to, order.status()) : order.amount() == current;
+        }
+    }
+
+    private record PaymentCaptured(Long orderId, Payment.PaymentMethod method, long amount, LocalDateTime at)
+            implements Change {
+
+        public void apply(Counters counters) {
+            counters.paymentCaptured(method, amount, at);
+        }
+
+        public boolean coveredBy(Scanned scanned) {
+            return CAPTURED.contains(scanned.payments().get(orderId));
+        }
+    }
+
+    private record Refunded(Long orderId, long amount, LocalDateTime at) implements Change {
+
+        public void apply(Counters counters) {
+            counters.refunded(amount, at);
+        }
+
+        public boolean coveredBy(Scanned scanned) {
+            return scanned.payments().get(orderId) == Payment.PaymentStatus.REFUNDED;
+        }
+    }
+
+    private static final class Counters {
+
+        private final Map<Order.OrderStatus, Total> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        private final Map<Payment.PaymentMethod, Total> byMethod = new EnumMap<>(Payment.PaymentMethod.class);
+        private final Total refunds = new Total();
+        private final ConcurrentMap<LocalDateTime, Hour> hourly = new ConcurrentHashMap<>();
+
+        Counters() {
+            for (Order.OrderStatus status : Order.OrderStatus.values()) {
+                byStatus.put(status, new Total());
+            }
+            for (Payment.PaymentMethod method : Payment.PaymentMethod.values()) {
+                byMethod.put(method, new Total());
+            }
+        }
+
+        void orderCreated(Order.OrderStatus status, long amount, LocalDateTime at) {
+            byStatus.get(status).add(1, amount);
+            if (at != null) {
+                hour(at).orders.increment();
+            }
+        }
+
+        void paymentCaptured(Payment.PaymentMethod method, long amount, LocalDateTime at) {
+            byMethod.get(method).add(1, amount);
+            if (at != null) {
+                hour(at).payments.increment();
+            }
+        }
+
+        void refunded(long amount, LocalDateTime at) {
+            refunds.add(1, amount);
+            if (at != null) {
+                hour(at).refunds.increment();
+            }
+        }
+
+        void add(Counters other) {
+            other.byStatus.forEach((status, total) -> byStatus.get(status).add(total));
+            other.byMethod.forEach((method, total) -> byMethod.get(method).add(total));
+            refunds.add(other.refunds);
+            other.hourly.forEach((start, counts) -> {
+                Hour hour = hourly.computeIfAbsent(start, key -> new Hour());
+                hour.orders.add(counts.orders.sum());
+                hour.payments.add(counts.payments.sum());
+                hour.refunds.add(counts.refunds.sum());
+            });
+        }
+
+        void prune(LocalDateTime cutoff) {
+            hourly.keySet().removeIf(start -> start.isBefore(cutoff.truncatedTo(ChronoUnit.HOURS)));
+        }
+
+        AnalyticsReport report(LocalDateTime checkpointedAt, boolean rebuildPending) {
+            Map<Order.OrderStatus, AnalyticsReport.Totals> statuses = new EnumMap<>(Order.OrderStatus.class);
+            byStatus.forEach((status, total) -> statuses.put(status, total.snapshot()));
+            Map<Payment.PaymentMethod, AnalyticsReport.Totals> methods = new EnumMap<>(Payment.PaymentMethod.class);
+            byMethod.forEach((method, total) -> methods.put(method, total.snapshot()));
+            TreeMap<LocalDateTime, AnalyticsReport.HourlyCounts> hours = new TreeMap<>();
+            hourly.forEach((start, counts) -> hours.put(start, new AnalyticsReport.HourlyCounts(
+                    counts.orders.sum(), counts.payments.sum(), counts.refunds.sum())));
+            return new AnalyticsReport(statuses, methods, refunds.snapshot(), hours, checkpointedAt, rebuildPending);
+        }
+
+        List<AnalyticsSummary> toSummaries() {
+            List<AnalyticsSummary> rows = new ArrayList<>();
+            byStatus.forEach((status, total) -> rows.add(total.toSummary(STATUS + status)));
+            byMethod.forEach((method, total) -> rows.add(total.toSummary(METHOD + method)));
+            rows.add(refunds.toSummary(REFUNDS));
+            hourly.forEach((start, counts) -> {
+                rows.add(new AnalyticsSummary(HOUR_ORDERS + start, counts.orders.sum(), 0));
+                rows.add(new AnalyticsSummary(HOUR_PAYMENTS + start, counts.payments.sum(), 0));
+                rows.add(new AnalyticsSummary(HOUR_REFUNDS + start, counts.refunds.sum(), 0));
+            });
+            return rows;
+        }
+
+        static Counters from(List<AnalyticsSummary> rows) {
+            Counters counters = new Counters();
+            for (AnalyticsSummary row : rows) {
+                String metric = row.getMetric();
+                if (metric.startsWith(STATUS)) {
+                    counters.byStatus.get(Order.OrderStatus.valueOf(metric.substring(STATUS.length())))
+                            .add(row.getCount(), row.getAmountMinor());
+                } else if (metric.startsWith(METHOD)) {
+                    counters.byMethod.get(Payment.PaymentMethod.valueOf(metric.substring(METHOD.length())))
+                            .add(row.getCount(), row.getAmountMinor());
+                } else if (metric.equals(REFUNDS)) {
+                    counters.refunds.add(row.getCount(), row.getAmountMinor());
+                } else if (metric.startsWith(HOUR_ORDERS)) {
+                    counters.hour(LocalDateTime.parse(metric.substring(HOUR_ORDERS.length()))).orders.add(row.getCount());
+                } else if (metric.startsWith(HOUR_PAYMENTS)) {
+                    counters.hour(LocalDateTime.parse(metric.substring(HOUR_PAYMENTS.length()))).payments.add(row.getCount());
+                } else if (metric.startsWith(HOUR_REFUNDS)) {
+                    counters.hour(LocalDateTime.parse(metric.substring(HOUR_REFUNDS.length()))).refunds.add(row.getCount());
+                }
+            }
+            return counters;
+        }
+
+        private Hour hour(LocalDateTime at) {
+            return hourly.computeIfAbsent(at.truncatedTo(ChronoUnit.HOURS), start -> new Hour());
+        }
+    }
+
+    private static final class Total {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder amountMinor = new LongAdder();
+
+        void add(long count, long amountMinor) {
+            this.count.add(count);
+            this.amountMinor.add(amountMinor);
+        }
+
+        void add(Total other) {
+            add(other.count.sum(), other.amountMinor.sum());
+        }
+
+        AnalyticsReport.Totals snapshot() {
+            return new AnalyticsReport.Totals(count.sum(), amountMinor.sum());
+        }
+
+        AnalyticsSummary toSummary(String metric) {
+            return new AnalyticsSummary(metric, count.sum(), amountMinor.sum());
+        }
+    }
+
+    private static final class Hour {
+
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder payments = new LongAdder();
+        private final LongAdder refunds = new LongAdder();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for orders by id and payments by order id. Only hits are cached; writes
+ * evict immediately and again once the surrounding transaction completes, so a read racing a
+ * commit cannot leave the old row behind for longer than the TTL.
+ *
+ * <p>Alongside, serialized responses for orders and payments that have reached a final state are
+ * kept without a TTL, bounded by {@code orders.cache.response-max-bytes}. They are evicted with the
+ * entity; to keep a read racing an eviction from storing old bytes for good, a put only sticks if
+ * no eviction happened since the caller took its {@link #responseStamp()}.
+ *
+ * <p>Misses go through a {@link SingleFlight} per cache, so concurrent readers of the same key share
+ * one query; a result is shared for at most {@code orders.cache.coalesce-window} and no longer once
+ * the key is evicted. Unlike the cache, this also covers keys that are not found.
+ */
+@Component
+public class OrderCache implements MeterBinder {
+
+    private final Cache<Long, Order> orders;
+    private final Cache<Long, Payment> payments;
+    private final Cache<Long, SerializedResponse> orderResponses;
+    private final Cache<Long, SerializedResponse> paymentResponses;
+    private final SingleFlight<Long, Optional<Order>> orderLoads;
+    private final SingleFlight<Long, PaymentRead> paymentLoads;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public OrderCache(@Value("${orders.cache.max-size:10000}") long maxSize,
+                      @Value("${orders.cache.ttl:30s}") Duration ttl,
+                      @Value("${orders.cache.response-max-bytes:16MB}") DataSize responseMaxBytes,
+                      @Value("${orders.cache.coalesce-window:10ms}") Duration coalesceWindow) {
+        this.orders = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.payments = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.orderResponses = responseCache(responseMaxBytes.toBytes() / 2);
+        this.paymentResponses = responseCache(responseMaxBytes.toBytes() / 2);
+        this.orderLoads = new SingleFlight<>(coalesceWindow);
+        this.paymentLoads = new SingleFlight<>(coalesceWindow);
+    }
+
+    public Optional<Order> getOrder(Long id, Function<Long, Optional<Order>> loader) {
+        Order cached = orders.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return orderLoads.load(id, key -> {
+            Optional<Order> loaded = loader.apply(key);
+            loaded.ifPresent(order -> orders.put(key, order));
+            return loaded;
+        });
+    }
+
+    /** Cached payment, counted as a hit or miss; on a miss the caller {@link #loadPayment loads} it. */
+    public Optional<Payment> findPayment(Long orderId) {
+        return Optional.ofNullable(payments.getIfPresent(orderId));
+    }
+
+    /** Runs the loader, or joins a concurrent load of the same order's payment, and caches the payment. */
+    public PaymentRead loadPayment(Long orderId, Function<Long, PaymentRead> loader) {
+        return paymentLoads.load(orderId, key -> {
+            PaymentRead read = loader.apply(key);
+            if (read.payment() != null) {
+                payments.put(key, read.payment());
+            }
+            return read;
+        });
+    }
+
+    /** Cached order without loading or counting a hit or miss. */
+    public Optional<Order> peekOrder(Long id) {
+        return Optional.ofNullable(orders.asMap().get(id));
+    }
+
+    /** Cached payment without loading or counting a hit or miss. */
+    public Optional<Payment> peekPayment(Long orderId) {
+        return Optional.ofNullable(payments.asMap().get(orderId));
+    }
+
+    public SerializedResponse getOrderResponse(Long id) {
+        return orderResponses.getIfPresent(id);
+    }
+
+    public SerializedResponse getPaymentResponse(Long orderId) {
+        return paymentResponses.getIfPresent(orderId);
+    }
+
+    /** Take before reading the entity that is about to be serialized and passed to a put. */
+    public long responseStamp() {
+        return evictions.get();
+    }
+
+    public void putOrderResponse(Long id, SerializedResponse response, long stamp) {
+        putResponse(orderResponses, id, response, stamp);
+    }
+
+    public void putPaymentResponse(Long orderId, SerializedResponse response, long stamp) {
+        putResponse(paymentResponses, orderId, response, stamp);
+    }
+
+    public void evictOrder(Long id) {
+        evict(orders, orderLoads, orderResponses, id);
+    }
+
+    public void evictPayment(Long orderId) {
+        evict(payments, paymentLoads, paymentResponses, orderId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, orders, "orders");
+        CaffeineCacheMetrics.monitor(registry, payments, "payments");
+        CaffeineCacheMetrics.monitor(registry, orderResponses, "orderResponses");
+        CaffeineCacheMetrics.monitor(registry, paymentResponses, "paymentResponses");
+        FunctionCounter.builder("cache.loads.coalesced", orderLoads, SingleFlight::sharedCount)
+                .tag("cache", "orders").register(registry);
+        FunctionCounter.builder("cache.loads.coalesced", paymentLoads, SingleFlight::sharedCount)
+                .tag("cache", "payments").register(registry);
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("orders", describe(orders));
+        stats.put("payments", describe(payments));
+        stats.put("orderResponses", describe(orderResponses));
+        stats.put("paymentResponses", describe(paymentResponses));
+        return stats;
+    }
+
+    /** A payment read together with its order's status; the payment is null if the order has none. */
+    public record PaymentRead(Order.OrderStatus orderStatus, Payment payment) {
+    }
+
+    private void putResponse(Cache<Long, SerializedResponse> cache, Long key, SerializedResponse response, long stamp) {
+        if (evictions.get() != stamp) {
+            return;
+        }
+        cache.put(key, response);
+        if (evictions.get() != stamp) {
+            // An eviction ran between the check and the put; it may have missed this entry.
+            cache.invalidate(key);
+        }
+    }
+
+    private void evict(Cache<Long, ?> cache, SingleFlight<Long, ?> loads, Cache<Long, SerializedResponse> responses,
+                       Long key) {
+        invalidate(cache, loads, responses, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(cache, loads, responses, key);
+                }
+            });
+        }
+    }
+
+    /** Entity first, so a reader that sees the new stamp can no longer load the old entity from here. */
+    private void invalidate(Cache<Long, ?> cache, SingleFlight<Long, ?> loads, Cache<Long, SerializedResponse> responses,
+                            Long key) {
+        cache.invalidate(key);
+        loads.forget(key);
+        evictions.incrementAndGet();
+        responses.invalidate(key);
+    }
+
+    private static Cache<Long, SerializedResponse> responseCache(long maxBytes) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<Long, SerializedResponse>weigher((id, response) -> response.body().length)
+                .recordStats()
+                .build();
+    }
+
+    private static Map<String, Object> describe(Cache<Long, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.estimatedSize());
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictions", stats.evictionCount());
+        return description;
+    }
+}
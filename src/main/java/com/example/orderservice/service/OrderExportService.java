@@ -0,0 +1,74 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderExportRow;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PaymentRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderExportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public OrderExportService(OrderRepository orderRepository, PaymentRepository paymentRepository,
+                              EntityManager entityManager, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every order as one JSON document per line. Orders are read in keyset chunks: one query
+     * for the chunk's orders with their line items and, with payments, one for their payments. The
+     * persistence context is cleared after each chunk, so memory stays flat regardless of table size.
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(OutputStream out, boolean includePayments) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            long after = 0;
+            while (true) {
+                List<Long> ids = orderRepository.findIdsAfter(after, Limit.of(CHUNK_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Map<Long, Payment> payments = includePayments
+                        ? paymentRepository.findByOrderIdIn(ids).stream()
+                                .collect(Collectors.toMap(Payment::getOrderId, Function.identity()))
+                        : Map.of();
+                for (Order order : orderRepository.findAllWithLineItems(ids)) {
+                    generator.writeObject(includePayments ? new OrderExportRow(order, payments.get(order.getId())) : order);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+                count += ids.size();
+                after = ids.get(ids.size() - 1);
+                entityManager.clear();
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.event.OrderSnapshot;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * In-process secondary index: customer name to ascending order ids, status to a bitmap over
+ * order ids (sequence ids are dense, so a bitmap costs one bit per order and iterates in id order).
+ * Built from the table once the application is ready and kept current from {@link OrderChangedEvent}s
+ * after commit. Until it is built, {@link #find} returns null and callers use the database indexes.
+ *
+ * <p>Entries can go stale when a writer does not know the previous customer name (PATCH), so callers
+ * re-check the rows they load.
+ */
+@Component
+public class OrderIndex {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private Map<String, SortedLongSet> byCustomer = new HashMap<>();
+    private Map<Order.OrderStatus, BitSet> byStatus = emptyStatusIndex();
+    /** Changes seen while a rebuild scans the table; replayed onto the new index before it goes live. */
+    private List<OrderChangedEvent> pending;
+    private boolean overflow;
+    private volatile boolean ready;
+
+    public OrderIndex(OrderRepository orderRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        Map<String, SortedLongSet> customers = new HashMap<>();
+        Map<Order.OrderStatus, BitSet> statuses = emptyStatusIndex();
+        boolean[] tooLarge = {false};
+        boolean complete = false;
+        try {
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<Object[]> rows = orderRepository.streamIndexEntries()) {
+                    rows.forEach(row -> tooLarge[0] |= !add(customers, statuses, (Long) row[0],
+                            (String) row[1], (Order.OrderStatus) row[2]));
+                }
+            });
+            complete = !tooLarge[0];
+        } finally {
+            synchronized (this) {
+                overflow = false;
+                if (complete) {
+                    pending.forEach(event -> apply(customers, statuses, event));
+                    byCustomer = customers;
+                    byStatus = statuses;
+                }
+                pending = null;
+                ready = complete && !overflow;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderChanged(OrderChangedEvent event) {
+        if (pending != null) {
+            pending.add(event);
+        }
+        apply(byCustomer, byStatus, event);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Up to {@code limit} ids greater than {@code after}, ascending, for orders of the given customer
+     * (any customer when null) in one of the given statuses (any status when empty).
+     *
+     * @return the ids, or null while the index is not built
+     */
+    public synchronized long[] find(String customerName, Collection<Order.OrderStatus> statuses, long after, int limit) {
+        if (!ready) {
+            return null;
+        }
+        List<BitSet> candidates = new ArrayList<>();
+        for (Order.OrderStatus status : statuses.isEmpty() ? byStatus.keySet() : statuses) {
+            candidates.add(byStatus.get(status));
+        }
+        long[] ids = new long[limit];
+        int found = 0;
+        if (customerName != null) {
+            SortedLongSet customerIds = byCustomer.get(customerName);
+            if (customerIds == null) {
+                return new long[0];
+            }
+            for (int i = customerIds.indexAfter(after); i < customerIds.size() && found < limit; i++) {
+                long id = customerIds.get(i);
+                if (anyContains(candidates, id)) {
+                    ids[found++] = id;
+                }
+            }
+        } else if (after < Integer.MAX_VALUE) {
+            int from = (int) Math.max(after + 1, 0);
+            while (found < limit) {
+                int next = -1;
+                for (BitSet candidate : candidates) {
+                    int id = candidate.nextSetBit(from);
+                    if (id >= 0 && (next < 0 || id < next)) {
+                        next = id;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+                ids[found++] = next;
+                from = next + 1;
+            }
+        }
+        return Arrays.copyOf(ids, found);
+    }
+
+    private void apply(Map<String, SortedLongSet> customers, Map<Order.OrderStatus, BitSet> statuses,
+                       OrderChangedEvent event) {
+        Long id = event.orderId();
+        OrderSnapshot before = event.before();
+        OrderSnapshot after = event.after();
+        switch (event.type()) {
+            case CREATED -> {
+                if (!add(customers, statuses, id, after.customerName(), after.status())) {
+                    overflow = true;
+                    ready = false;
+                }
+            }
+            case UPDATED -> {
+                if (after.status() != null) {
+                    clearStatus(statuses, id);
+                    statuses.get(after.status()).set(id.intValue());
+                }
+                if (after.customerName() != null && !after.customerName().equals(before.customerName())) {
+                    removeCustomer(customers, before.customerName(), id);
+                    customers.computeIfAbsent(after.customerName(), name -> new SortedLongSet()).add(id);
+                }
+            }
+            case DELETED -> {
+                clearStatus(statuses, id);
+                removeCustomer(customers, before.customerName(), id);
+            }
+        }
+    }
+
+    /** Returns false when the id does not fit the status bitmaps; the index then stays cold. */
+    private static boolean add(Map<String, SortedLongSet> customers, Map<Order.OrderStatus, BitSet> statuses,
+                               Long id, String customerName, Order.OrderStatus status) {
+        if (id == null || id >= Integer.MAX_VALUE) {
+            return false;
+        }
+        if (customerName != null) {
+            customers.computeIfAbsent(customerName, name -> new SortedLongSet()).add(id);
+        }
+        if (status != null) {
+            statuses.get(status).set(id.intValue());
+        }
+        return true;
+    }
+
+    private static void clearStatus(Map<Order.OrderStatus, BitSet> statuses, Long id) {
+        if (id < Integer.MAX_VALUE) {
+            statuses.values().forEach(bits -> bits.clear(id.intValue()));
+        }
+    }
+
+    private static void removeCustomer(Map<String, SortedLongSet> customers, String customerName, Long id) {
+        SortedLongSet ids = customerName == null ? null : customers.get(customerName);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            customers.remove(customerName);
+        }
+    }
+
+    /** Customer entries may be stale; an id only counts while some status bitmap still holds it. */
+    private static boolean anyContains(List<BitSet> statuses, long id) {
+        if (id >= Integer.MAX_VALUE) {
+            return false;
+        }
+        for (BitSet bits : statuses) {
+            if (bits.get((int) id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<Order.OrderStatus, BitSet> emptyStatusIndex() {
+        Map<Order.OrderStatus, BitSet> statuses = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            statuses.put(status, new BitSet());
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.exception.OrderValidationException;
+import com.example.orderservice.model.BulkItemResult;
+import com.example.orderservice.model.BulkOrderResponse;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+public class OrderIngestService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final int maxItems;
+
+    public OrderIngestService(EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              ApplicationEventPublisher events,
+                              @Value("${orders.bulk.batch-size:50}") int batchSize,
+                              @Value("${orders.bulk.max-items:10000}") int maxItems) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public BulkOrderResponse createOrders(List<Order> orders) {
+        return ingest(orders.stream().map(order -> new Item(order, null)).iterator());
+    }
+
+    /**
+     * Parses one order per line, so a malformed line is rejected on its own instead of failing the
+     * request after earlier chunks have committed (which a retry would then insert again).
+     */
+    public BulkOrderResponse createOrders(InputStream ndjson) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(Order.class);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            return ingest(new Iterator<>() {
+                private String next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Item next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    String line = next;
+                    next = advance();
+                    try {
+                        return new Item(reader.readValue(line), null);
+                    } catch (JsonProcessingException e) {
+                        return new Item(null, "MALFORMED_JSON");
+                    }
+                }
+
+                private String advance() {
+                    try {
+                        String line;
+                        while ((line = lines.readLine()) != null && line.isBlank()) {
+                            // blank lines separate nothing in NDJSON
+                        }
+                        return line;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Validates each order and inserts the valid ones in chunks of {@code orders.bulk.batch-size},
+     * one transaction per chunk. With pooled sequence ids and hibernate.jdbc.batch_size each chunk
+     * becomes a single JDBC batch. A failing chunk is rolled back on its own and reported as FAILED.
+     */
+    private BulkOrderResponse ingest(Iterator<Item> orders) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<Order> chunk = new ArrayList<>(batchSize);
+        List<Integer> chunkIndexes = new ArrayList<>(batchSize);
+        int index = 0;
+        while (orders.hasNext() && index < maxItems) {
+            Item item = orders.next();
+            Order order = item.order();
+            String error = item.error() != null ? item.error() : validate(order);
+            if (error != null) {
+                results.add(BulkItemResult.rejected(index++, error));
+                continue;
+            }
+            order.setId(null);
+            chunk.add(order);
+            chunkIndexes.add(index++);
+            if (chunk.size() == batchSize) {
+                insertChunk(chunk, chunkIndexes, results);
+            }
+        }
+        insertChunk(chunk, chunkIndexes, results);
+        results.sort(Comparator.comparingInt(BulkItemResult::index));
+        return BulkOrderResponse.of(results, orders.hasNext());
+    }
+
+    private void insertChunk(List<Order> chunk, List<Integer> indexes, List<BulkItemResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                chunk.forEach(entityManager::persist);
+                entityManager.flush();
+                chunk.forEach(order -> events.publishEvent(OrderChangedEvent.created(order)));
+                entityManager.clear();
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(BulkItemResult.created(indexes.get(i), chunk.get(i).getId()));
+            }
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            for (Integer index : indexes) {
+                results.add(BulkItemResult.failed(index, "INSERT_FAILED"));
+            }
+        }
+        chunk.clear();
+        indexes.clear();
+    }
+
+    /** An order to ingest, or the reason it could not be read. */
+    private record Item(Order order, String error) {
+    }
+
+    private String validate(Order order) {
+        if (order == null) {
+            return "EMPTY_ORDER";
+        }
+        if (order.getCustomerName() == null || order.getCustomerName().isBlank()) {
+            return "CUSTOMER_NAME_REQUIRED";
+        }
+        try {
+            LineItemPricing.applyTotals(order);
+        } catch (OrderValidationException e) {
+            return e.getErrorCode();
+        }
+        if (order.getTotalAmount() == null || !order.getTotalAmount().isPositive()) {
+            return "INVALID_TOTAL_AMOUNT";
+        }
+        return null;
+    }
+}
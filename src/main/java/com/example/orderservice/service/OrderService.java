@@ -1,47 +1,287 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.event.OrderSnapshot;
+import com.example.orderservice.exception.InvalidStatusTransitionException;
+import com.example.orderservice.exception.OrderNotFoundException;
+import com.example.orderservice.exception.OrderValidationException;
+import com.example.orderservice.exception.PreconditionFailedException;
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderFilter;
+import com.example.orderservice.model.OrderPage;
+import com.example.orderservice.model.OrderPatch;
+import com.example.orderservice.model.OrderView;
+import com.example.orderservice.model.OrderViewPage;
+import com.example.orderservice.model.SkuSummary;
+import com.example.orderservice.repository.OrderLineItemRepository;
 import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OrderSpecifications;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderLineItemRepository lineItemRepository;
+    private final OrderCache orderCache;
+    private final OrderIndex orderIndex;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository,
+                        OrderLineItemRepository lineItemRepository,
+                        OrderCache orderCache,
+                        OrderIndex orderIndex,
+                        ApplicationEventPublisher events,
+                        ObjectMapper objectMapper,
+                        @Value("${orders.page.default-size:50}") int defaultPageSize,
+                        @Value("${orders.page.max-size:500}") int maxPageSize) {
         this.orderRepository = orderRepository;
+        this.lineItemRepository = lineItemRepository;
+        this.orderCache = orderCache;
+        this.orderIndex = orderIndex;
+        this.events = events;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
+    @Transactional
     public Order createOrder(Order order) {
-        return orderRepository.save(order);
+        LineItemPricing.applyTotals(order);
+        Order saved = orderRepository.save(order);
+        events.publishEvent(OrderChangedEvent.created(saved));
+        return saved;
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public OrderPage findOrders(OrderFilter filter, Long after, Integer limit) {
+        return findPage(OrderSpecifications.matching(filter, after), pageSize(limit));
+    }
+
+    /**
+     * Orders of one customer and/or in a set of statuses, served from {@link OrderIndex}. Only the
+     * page itself is read from the database, by primary key. While the index is still being built
+     * this falls back to the (customer_name, id) and (status, id) database indexes.
+     */
+    public OrderPage lookupOrders(String customerName, Set<Order.OrderStatus> statuses, Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+        long[] ids = orderIndex.find(customerName, statuses, after == null ? 0 : after, pageSize + 1);
+        if (ids == null) {
+            OrderFilter filter = new OrderFilter(null, customerName, null, null, null);
+            return findPage(OrderSpecifications.matching(filter, after).and(OrderSpecifications.statusIn(statuses)),
+                    pageSize);
+        }
+        long[] page = ids.length > pageSize ? Arrays.copyOf(ids, pageSize) : ids;
+        List<Order> orders = orderRepository.findAllWithLineItems(Arrays.stream(page).boxed().toList()).stream()
+                .filter(order -> matches(order, customerName, statuses))
+                .collect(Collectors.toList());
+        return new OrderPage(orders, ids.length > pageSize ? page[pageSize - 1] : null);
+    }
+
+    /** Order and payment from one join, read straight into the view without loading entities. */
+    public Optional<OrderView> getOrderView(Long id) {
+        return orderRepository.findViewById(id);
+    }
+
+    public OrderViewPage findOrderViews(String customerName, Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+        long afterId = after == null ? 0 : after;
+        List<OrderView> rows = customerName == null
+                ? orderRepository.findViews(afterId, Limit.of(pageSize + 1))
+                : orderRepository.findViewsByCustomerName(customerName, afterId, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new OrderViewPage(rows, null);
+        }
+        List<OrderView> page = rows.subList(0, pageSize);
+        return new OrderViewPage(page, page.get(pageSize - 1).id());
+    }
+
+    public SkuSummary summarizeSku(String sku) {
+        return lineItemRepository.summarizeSku(sku).orElse(new SkuSummary(sku, 0L, 0L, 0L));
     }
 
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return orderCache.getOrder(id, orderRepository::findById);
     }
 
+    /**
+     * The order as response JSON. DELIVERED and CANCELLED orders are not expected to change again,
+     * so their bytes stay in {@link OrderCache} until a write evicts them.
+     */
+    public Optional<SerializedResponse> getOrderResponse(Long id) {
+        SerializedResponse cached = orderCache.getOrderResponse(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = orderCache.responseStamp();
+        return getOrderById(id).map(order -> {
+            SerializedResponse response = SerializedResponse.of(objectMapper, order, order.getVersion());
+            if (!order.getStatus().isOpen()) {
+                orderCache.putOrderResponse(id, response, stamp);
+            }
+            return response;
+        });
+    }
+
+    /** Current version for ETag checks, from the cache when the order is cached; empty if there is no such order. */
+    public Optional<Long> findVersion(Long id) {
+        SerializedResponse response = orderCache.getOrderResponse(id);
+        if (response != null) {
+            return Optional.ofNullable(response.version());
+        }
+        Optional<Order> cached = orderCache.peekOrder(id);
+        return cached.isPresent() ? Optional.ofNullable(cached.get().getVersion()) : orderRepository.findVersionById(id);
+    }
+
+    @Transactional
     public Optional<Order> updateOrder(Long id, Order orderDetails) {
+        return updateOrder(id, orderDetails, null);
+    }
+
+    /**
+     * @param expectedVersion version the client last saw (If-Match); null to update unconditionally
+     * @throws PreconditionFailedException if the order is at another version
+     */
+    @Transactional
+    public Optional<Order> updateOrder(Long id, Order orderDetails, Long expectedVersion) {
         return orderRepository.findById(id).map(order -> {
+            if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+                throw new PreconditionFailedException(id);
+            }
+            OrderSnapshot before = OrderSnapshot.of(order);
             order.setCustomerName(orderDetails.getCustomerName());
             order.setItems(orderDetails.getItems());
             order.setTotalAmount(orderDetails.getTotalAmount());
             order.setStatus(orderDetails.getStatus());
-            return orderRepository.save(order);
+            if (!orderDetails.getLineItems().isEmpty()) {
+                order.setLineItems(orderDetails.getLineItems());
+            }
+            LineItemPricing.applyTotals(order);
+            Order saved = orderRepository.save(order);
+            orderCache.evictOrder(id);
+            events.publishEvent(OrderChangedEvent.updated(id, before, OrderSnapshot.of(saved)));
+            return saved;
         });
     }
 
+    @Transactional
+    public Order.OrderStatus transitionStatus(Long id, Order.OrderStatus target, Order.OrderStatus expected) {
+        List<Order.OrderStatus> sources = target.allowedSources();
+        if (expected != null) {
+            if (!sources.contains(expected)) {
+                throw new InvalidStatusTransitionException(id, expected, target);
+            }
+            sources = List.of(expected);
+        }
+        OrderSnapshot cached = cachedSnapshot(id);
+        // One conditional UPDATE per allowed source (only CANCELLED has two), so listeners learn which status was left.
+        for (Order.OrderStatus source : sources) {
+            if (orderRepository.updateStatus(id, source, target) > 0) {
+                changed(id, new OrderSnapshot(cached.customerName(), source, totalAmount(id, cached)),
+                        new OrderSnapshot(null, target, null));
+                return target;
+            }
+        }
+        throw rejectedUpdate(id, target);
+    }
+
+    @Transactional
+    public void patchOrder(Long id, OrderPatch patch) {
+        if (patch.isEmpty()) {
+            throw new OrderValidationException("EMPTY_PATCH", "Patch for order " + id + " has no fields to update");
+        }
+        OrderSnapshot cached = cachedSnapshot(id);
+        OrderSnapshot after = new OrderSnapshot(patch.customerName(), patch.status(), patch.totalAmount());
+        if (patch.status() == null) {
+            if (orderRepository.patch(id, patch, null) == 0) {
+                throw rejectedUpdate(id, null);
+            }
+            changed(id, cached, after);
+            return;
+        }
+        for (Order.OrderStatus source : patch.status().allowedSources()) {
+            if (orderRepository.patch(id, patch, List.of(source)) > 0) {
+                Money previous = patch.totalAmount() == null ? totalAmount(id, cached) : cached.totalAmount();
+                changed(id, new OrderSnapshot(cached.customerName(), source, previous), after);
+                return;
+            }
+        }
+        throw rejectedUpdate(id, patch.status());
+    }
+
+    @Transactional
     public boolean deleteOrder(Long id) {
-        return orderRepository.findById(id).map(order -> {
-            orderRepository.delete(order);
-            return true;
-        }).orElse(false);
+        // The row is deleted without loading it; a cached copy still tells the listeners what went away.
+        OrderSnapshot before = cachedSnapshot(id);
+        if (orderRepository.deleteOrderById(id) == 0) {
+            return false;
+        }
+        orderCache.evictOrder(id);
+        orderCache.evictPayment(id);
+        events.publishEvent(OrderChangedEvent.deleted(id, before));
+        return true;
+    }
+
+    /** What the cache knows about an order, without a database read; conditional writes never load the row. */
+    private OrderSnapshot cachedSnapshot(Long id) {
+        return orderCache.peekOrder(id).map(OrderSnapshot::of).orElse(OrderSnapshot.UNKNOWN);
+    }
+
+    /**
+     * The amount of an order whose status was just updated and whose amount was not, for the event
+     * payload. Read from the row this transaction has locked when it was not cached.
+     */
+    private Money totalAmount(Long id, OrderSnapshot cached) {
+        return cached.totalAmount() != null ? cached.totalAmount()
+                : orderRepository.findTotalAmountById(id).orElse(null);
+    }
+
+    private void changed(Long id, OrderSnapshot before, OrderSnapshot after) {
+        orderCache.evictOrder(id);
+        events.publishEvent(OrderChangedEvent.updated(id, before, after));
+    }
+
+    private OrderPage findPage(Specification<Order> specification, int pageSize) {
+        // Fetch one extra row to learn whether another page exists without a count query. Line items
+        // are then fetched for the page in one join, since a collection fetch cannot be limited in SQL.
+        List<Order> rows = orderRepository.findBy(specification,
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        List<Long> ids = rows.stream().limit(pageSize).map(Order::getId).toList();
+        List<Order> page = ids.isEmpty() ? List.of() : orderRepository.findAllWithLineItems(ids);
+        return new OrderPage(page, rows.size() > pageSize ? ids.get(pageSize - 1) : null);
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /** Index entries can be stale, so every loaded row is checked against the query again. */
+    private static boolean matches(Order order, String customerName, Collection<Order.OrderStatus> statuses) {
+        return (customerName == null || customerName.equals(order.getCustomerName()))
+                && (statuses.isEmpty() || statuses.contains(order.getStatus()));
+    }
+
+    /** Only reached when a conditional update matched no row: tells a missing order from a disallowed transition. */
+    private RuntimeException rejectedUpdate(Long id, Order.OrderStatus target) {
+        return orderRepository.findStatusById(id)
+                .<RuntimeException>map(current -> new InvalidStatusTransitionException(id, current, target))
+                .orElseGet(() -> new OrderNotFoundException(id));
     }
 }
@@ -0,0 +1,60 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.event.PaymentChangedEvent;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes every order and payment change to outbox_events just before the transaction that made
+ * it commits, so the outbox holds exactly the committed changes. {@link ChangeStreamService}
+ * reads it from there.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxRepository;
+    private final OrderRepository orderRepository;
+
+    public OutboxWriter(OutboxEventRepository outboxRepository, OrderRepository orderRepository) {
+        this.outboxRepository = outboxRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        String customerName = event.after() != null && event.after().customerName() != null
+                ? event.after().customerName()
+                : event.before() != null ? event.before().customerName() : null;
+        if (customerName == null && event.type() != OrderChangedEvent.Type.DELETED) {
+            customerName = orderRepository.findCustomerNameById(event.orderId()).orElse(null);
+        }
+        write("ORDER_" + event.type(), event.orderId(), customerName,
+                event.after() == null || event.after().status() == null ? null : event.after().status().name(),
+                event.before() == null || event.before().status() == null ? null : event.before().status().name());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        write(event.previousStatus() == null ? "PAYMENT_CREATED" : "PAYMENT_UPDATED", event.orderId(),
+                orderRepository.findCustomerNameById(event.orderId()).orElse(null),
+                event.status().name(), event.previousStatus() == null ? null : event.previousStatus().name());
+    }
+
+    private void write(String type, Long orderId, String customerName, String status, String previousStatus) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setType(type);
+        outboxEvent.setOrderId(orderId);
+        outboxEvent.setCustomerName(customerName);
+        outboxEvent.setStatus(status);
+        outboxEvent.setPreviousStatus(previousStatus);
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        outboxRepository.save(outboxEvent);
+    }
+}
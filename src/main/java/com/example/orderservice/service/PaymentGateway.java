@@ -0,0 +1,26 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Payment;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settles payments with the payment provider. A payment can be submitted again after a crash or
+ * a failed batch write, so implementations must be idempotent per payment id.
+ */
+public interface PaymentGateway {
+
+    /** @return SUCCESS or FAILED */
+    Payment.PaymentStatus settle(Payment payment);
+
+    /** Settles a batch; override when the provider has a batch API. */
+    default Map<Long, Payment.PaymentStatus> settleAll(List<Payment> payments) {
+        Map<Long, Payment.PaymentStatus> results = new LinkedHashMap<>();
+        for (Payment payment : payments) {
+            results.put(payment.getId(), settle(payment));
+        }
+        return results;
+    }
+}
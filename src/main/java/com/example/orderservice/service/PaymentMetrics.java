@@ -0,0 +1,24 @@
+package com.example.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts payment API outcomes as {@code payments.outcomes{operation, outcome}}, where outcome is
+ * SUCCESS or the error code returned to the client (AMOUNT_MISMATCH, PAYMENT_EXISTS, ...).
+ */
+@Component
+public class PaymentMetrics {
+
+    public static final String SUCCESS = "SUCCESS";
+
+    private final MeterRegistry meterRegistry;
+
+    public PaymentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String operation, String outcome) {
+        meterRegistry.counter("payments.outcomes", "operation", operation, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.PaymentChangedEvent;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Settles PENDING payments off the request thread when {@code payments.processing.mode=async}.
+ * Requests reserve a queue slot before inserting the payment and hand it over once the insert has
+ * committed; with no free slot the request is rejected instead of queueing without bound. Workers
+ * drain up to {@code batch-size} payments at a time, settle them through the {@link PaymentGateway}
+ * and write the outcomes with one UPDATE per resulting status.
+ *
+ * <p>The queue is not durable: PENDING payments older than {@code stale-after} (left behind by a
+ * restart or a failed batch) are queued again by a periodic sweep. The sweep may queue a payment a
+ * slow worker still holds, so a batch locks its PENDING rows (skipping rows locked by another
+ * worker) in the transaction that calls the gateway and writes the outcome; a payment is sent to the
+ * gateway by one worker only. Failed batches are counted in {@code payments.settlement.failures}.
+ */
+@Component
+public class PaymentProcessor implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentProcessor.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway gateway;
+    private final OrderCache orderCache;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int workerCount;
+    private final Duration staleAfter;
+    private final ThreadFactory threadFactory;
+    private final BlockingQueue<Payment> queue = new LinkedBlockingQueue<>();
+    private final Semaphore slots;
+    private final List<Thread> workers = new ArrayList<>();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile boolean running;
+
+    public PaymentProcessor(PaymentRepository paymentRepository,
+                            PaymentGateway gateway,
+                            OrderCache orderCache,
+                            ApplicationEventPublisher events,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${payments.processing.mode:sync}") String mode,
+                            @Value("${payments.processing.queue-capacity:10000}") int queueCapacity,
+                            @Value("${payments.processing.batch-size:100}") int batchSize,
+                            @Value("${payments.processing.workers:2}") int workerCount,
+                            @Value("${payments.processing.stale-after:PT5M}") Duration staleAfter,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.paymentRepository = paymentRepository;
+        this.gateway = gateway;
+        this.orderCache = orderCache;
+        this.events = events;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = "async".equalsIgnoreCase(mode);
+        this.slots = new Semaphore(queueCapacity);
+        this.batchSize = batchSize;
+        this.workerCount = workerCount;
+        this.staleAfter = staleAfter;
+        this.threadFactory = (virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true))
+                .name("payment-settlement-", 0).factory();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Claims a queue slot for a payment about to be inserted; false when the queue is full. */
+    public boolean tryReserve() {
+        return slots.tryAcquire();
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    /** Queues the payment once the current transaction commits; the reserved slot is freed on rollback. */
+    public void submitAfterCommit(Payment payment) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queue.add(payment);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    queue.add(payment);
+                } else {
+                    slots.release();
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeueOnStartup() {
+        requeue(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${payments.processing.sweep-interval:PT1M}")
+    public void requeueStale() {
+        requeue(LocalDateTime.now().minus(staleAfter));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("payments.queue.size", queue, BlockingQueue::size)
+                .description("Payments waiting for settlement")
+                .register(registry);
+        FunctionCounter.builder("payments.settlement.failures", failedBatches, LongAdder::sum)
+                .description("Settlement batches that failed and were left PENDING for the sweep")
+                .register(registry);
+    }
+
+    private void requeue(LocalDateTime createdBefore) {
+        int available = slots.availablePermits();
+        if (!enabled || available == 0) {
+            return;
+        }
+        for (Payment payment : paymentRepository.findByStatusAndPaidAtBefore(
+                Payment.PaymentStatus.PENDING, createdBefore, Limit.of(available))) {
+            if (!tryReserve()) {
+                return;
+            }
+            queue.add(payment);
+        }
+    }
+
+    private void work() {
+        List<Payment> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Payment first = queue.take();
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                slots.release(batch.size());
+                settle(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // The batch stays PENDING and is picked up again by the stale-payment sweep.
+                failedBatches.increment();
+                log.warn("Settlement of payments {} failed; left PENDING for the stale-payment sweep",
+                        batch.stream().map(Payment::getId).toList(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void settle(List<Payment> batch) {
+        List<Long> ids = batch.stream().map(Payment::getId).toList();
+        List<Payment> settled = transactionTemplate.execute(tx -> {
+            // Locked until the outcome is written, so a payment queued twice reaches the gateway once.
+            List<Payment> pending = paymentRepository.lockPendingForSettlement(ids);
+            if (pending.isEmpty()) {
+                return pending;
+            }
+            Map<Long, Payment.PaymentStatus> outcomes = gateway.settleAll(pending);
+            Map<Payment.PaymentStatus, List<Long>> idsByStatus = outcomes.entrySet().stream()
+                    .collect(Collectors.groupingBy(Map.Entry::getValue,
+                            Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+            LocalDateTime settledAt = LocalDateTime.now();
+            idsByStatus.forEach((status, statusIds) -> {
+                int updated = paymentRepository.settle(statusIds, Payment.PaymentStatus.PENDING, status, settledAt);
+                if (updated != statusIds.size()) {
+                    // Cannot happen while the rows are locked; roll back rather than report changes not made.
+                    throw new IllegalStateException("Settled " + updated + " of payments " + statusIds);
+                }
+            });
+            List<Payment> changed = new ArrayList<>(outcomes.size());
+            for (Payment payment : pending) {
+                Payment.PaymentStatus status = outcomes.get(payment.getId());
+                if (status != null) {
+                    // Not set on the entity: it is managed here, and the UPDATE above has moved its version on.
+                    events.publishEvent(new PaymentChangedEvent(payment.getOrderId(), Payment.PaymentStatus.PENDING,
+                            status, payment.getPaymentMethod(), payment.getAmount()));
+                    changed.add(payment);
+                }
+            }
+            return changed;
+        });
+        settled.forEach(payment -> orderCache.evictPayment(payment.getOrderId()));
+    }
+}
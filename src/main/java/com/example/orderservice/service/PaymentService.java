@@ -1,14 +1,22 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.event.OrderSnapshot;
+import com.example.orderservice.event.PaymentChangedEvent;
 import com.example.orderservice.exception.*;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.Payment;
 import com.example.orderservice.model.PaymentRequest;
 import com.example.orderservice.repository.OrderRepository;
 import com.example.orderservice.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -16,15 +24,26 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final OrderCache orderCache;
+    private final PaymentProcessor paymentProcessor;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper;
 
-    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository) {
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository, OrderCache orderCache,
+                          PaymentProcessor paymentProcessor, ApplicationEventPublisher events, ObjectMapper objectMapper) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.orderCache = orderCache;
+        this.paymentProcessor = paymentProcessor;
+        this.events = events;
+        this.objectMapper = objectMapper;
     }
 
     @Transactional
     public Payment createPayment(Long orderId, PaymentRequest request) {
-        Order order = orderRepository.findById(orderId)
+        // Not from OrderCache, which may lag a cancellation or a new total by up to its TTL. The lock
+        // holds the status and amount checked here until the payment is committed.
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
 
         if (order.getStatus() != Order.OrderStatus.PLACED) {
@@ -32,11 +51,7 @@ public class PaymentService {
                     "Order " + orderId + " is not in PLACED status. Current status: " + order.getStatus());
         }
 
-        if (paymentRepository.existsByOrderId(orderId)) {
-            throw new PaymentConflictException(orderId);
-        }
-
-        if (!amountsMatch(request.getAmount(), order.getTotalAmount())) {
+        if (request.getAmount() == null || !request.getAmount().equals(order.getTotalAmount())) {
             throw new PaymentValidationException("AMOUNT_MISMATCH",
                     "Payment amount " + request.getAmount() + " does not match order total " + order.getTotalAmount());
         }
@@ -46,15 +61,93 @@ public class PaymentService {
         payment.setAmount(request.getAmount());
         payment.setPaymentMethod(request.getPaymentMethod());
         payment.setTransactionReference(request.getTransactionReference());
-        payment.setStatus(Payment.PaymentStatus.SUCCESS);
+        // In async mode the payment is stored PENDING and settled by PaymentProcessor after commit.
+        boolean async = paymentProcessor.isEnabled();
+        payment.setStatus(async ? Payment.PaymentStatus.PENDING : Payment.PaymentStatus.SUCCESS);
+        if (async && !paymentProcessor.tryReserve()) {
+            throw new PaymentBackpressureException(orderId);
+        }
 
-        return paymentRepository.save(payment);
+        // The reserved slot is ours to free until submitAfterCommit takes it over, whatever fails first.
+        boolean handedOff = !async;
+        Payment saved;
+        try {
+            // uk_payments_order_id enforces one payment per order; a duplicate insert fails instead of
+            // relying on a racy exists-check beforehand.
+            try {
+                saved = paymentRepository.saveAndFlush(payment);
+            } catch (DataIntegrityViolationException e) {
+                throw new PaymentConflictException(orderId);
+            }
+            if (async) {
+                paymentProcessor.submitAfterCommit(saved);
+                handedOff = true;
+            }
+        } finally {
+            if (!handedOff) {
+                paymentProcessor.release();
+            }
+        }
+        orderCache.evictPayment(orderId);
+        events.publishEvent(PaymentChangedEvent.of(saved, null));
+        return saved;
     }
 
     public Optional<Payment> getPaymentByOrderId(Long orderId) {
-        orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException(orderId));
-        return paymentRepository.findByOrderId(orderId);
+        Optional<Payment> cached = orderCache.findPayment(orderId);
+        return cached.isPresent() ? cached : Optional.ofNullable(loadPayment(orderId).payment());
+    }
+
+    /**
+     * The payment as response JSON. A REFUNDED payment, or a SUCCESS payment of a DELIVERED order,
+     * is not expected to change again, so its bytes stay in {@link OrderCache} until a write evicts them.
+     */
+    public Optional<SerializedResponse> getPaymentResponse(Long orderId) {
+        SerializedResponse cached = orderCache.getPaymentResponse(orderId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = orderCache.responseStamp();
+        // A cached payment implies its order exists (deleting an order evicts it); the order status
+        // only decides whether the response may be cached, so it is not loaded just for that.
+        OrderCache.PaymentRead read = orderCache.findPayment(orderId)
+                .map(payment -> new OrderCache.PaymentRead(orderCache.peekOrder(orderId).map(Order::getStatus).orElse(null), payment))
+                .orElseGet(() -> loadPayment(orderId));
+        Payment payment = read.payment();
+        if (payment == null) {
+            return Optional.empty();
+        }
+        SerializedResponse response = SerializedResponse.of(objectMapper, payment, payment.getVersion());
+        if (payment.getStatus() == Payment.PaymentStatus.REFUNDED
+                || (payment.getStatus() == Payment.PaymentStatus.SUCCESS && read.orderStatus() == Order.OrderStatus.DELIVERED)) {
+            orderCache.putPaymentResponse(orderId, response, stamp);
+        }
+        return Optional.of(response);
+    }
+
+    /**
+     * Existence check and fetch in one query: the order's status and its payment, which is cached.
+     * Concurrent loads for the same order share one query.
+     */
+    private OrderCache.PaymentRead loadPayment(Long orderId) {
+        return orderCache.loadPayment(orderId, id -> {
+            List<Object[]> rows = paymentRepository.findWithOrderStatus(id);
+            if (rows.isEmpty()) {
+                throw new OrderNotFoundException(id);
+            }
+            return new OrderCache.PaymentRead((Order.OrderStatus) rows.get(0)[0], (Payment) rows.get(0)[1]);
+        });
+    }
+
+    /** Current payment version for ETag checks, from the cache when the payment is cached. */
+    public Optional<Long> findPaymentVersion(Long orderId) {
+        SerializedResponse response = orderCache.getPaymentResponse(orderId);
+        if (response != null) {
+            return Optional.ofNullable(response.version());
+        }
+        Optional<Payment> cached = orderCache.peekPayment(orderId);
+        return cached.isPresent() ? Optional.ofNullable(cached.get().getVersion())
+                : paymentRepository.findVersionByOrderId(orderId);
     }
 
     @Transactional
@@ -70,15 +163,17 @@ public class PaymentService {
                     "Payment cannot be refunded. Current status: " + payment.getStatus());
         }
 
+        OrderSnapshot before = OrderSnapshot.of(order);
         payment.setStatus(Payment.PaymentStatus.REFUNDED);
+        payment.setRefundedAt(LocalDateTime.now());
         order.setStatus(Order.OrderStatus.CANCELLED);
 
         orderRepository.save(order);
-        return paymentRepository.save(payment);
-    }
-
-    private boolean amountsMatch(Double requestAmount, Double orderAmount) {
-        if (requestAmount == null || orderAmount == null) return false;
-        return Math.abs(requestAmount - orderAmount) < 0.001;
+        Payment saved = paymentRepository.save(payment);
+        orderCache.evictOrder(orderId);
+        orderCache.evictPayment(orderId);
+        events.publishEvent(OrderChangedEvent.updated(orderId, before, OrderSnapshot.of(order)));
+        events.publishEvent(PaymentChangedEvent.of(saved, Payment.PaymentStatus.SUCCESS));
+        return saved;
     }
 }
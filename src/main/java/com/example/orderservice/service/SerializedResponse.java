@@ -0,0 +1,18 @@
+package com.example.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+
+/** A response body already serialized to JSON, with the entity version it was taken from. */
+public record SerializedResponse(byte[] body, Long version) {
+
+    static SerializedResponse of(ObjectMapper objectMapper, Object entity, Long version) {
+        try {
+            return new SerializedResponse(objectMapper.writeValueAsBytes(entity), version);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
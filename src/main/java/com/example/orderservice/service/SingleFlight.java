@@ -0,0 +1,76 @@
+package com.example.orderservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, callers arriving
+ * while it runs wait for and share its result (or exception). A successful result is also handed to
+ * callers arriving up to {@code staleness} after it completed; with a zero window only loads that
+ * are still running are shared. {@link #forget} makes the next caller start a fresh load, for use
+ * when the underlying row changes.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final Executor expiry;
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlight(Duration staleness) {
+        this.expiry = staleness.isZero() ? null
+                : CompletableFuture.delayedExecutor(staleness.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public V load(K key, Function<K, V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return join(existing);
+        }
+        try {
+            V value = loader.apply(key);
+            flight.complete(value);
+            if (expiry == null) {
+                flights.remove(key, flight);
+            } else {
+                expiry.execute(() -> flights.remove(key, flight));
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void forget(K key) {
+        flights.remove(key);
+    }
+
+    /** Calls that got their result from another caller's load. */
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.orderservice.service;
+
+import java.util.Arrays;
+
+/**
+ * Ascending set of primitive longs in one array. Order ids mostly arrive in increasing order, so
+ * adds are usually appends; lookups and cursor seeks are binary searches.
+ */
+final class SortedLongSet {
+
+    private long[] values = new long[4];
+    private int size;
+
+    boolean add(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    boolean remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    /** Position of the first value greater than {@code after}. */
+    int indexAfter(long after) {
+        int index = Arrays.binarySearch(values, 0, size, after);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
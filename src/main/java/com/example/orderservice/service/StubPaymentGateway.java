@@ -0,0 +1,44 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local stand-in for a provider: approves every payment except those whose transaction reference
+ * starts with {@value #DECLINE_PREFIX}, after {@code payments.gateway.stub-latency} per batch.
+ */
+@Component
+public class StubPaymentGateway implements PaymentGateway {
+
+    static final String DECLINE_PREFIX = "DECLINE-";
+
+    private final Duration latency;
+
+    public StubPaymentGateway(@Value("${payments.gateway.stub-latency:0ms}") Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public Payment.PaymentStatus settle(Payment payment) {
+        String reference = payment.getTransactionReference();
+        return reference != null && reference.startsWith(DECLINE_PREFIX)
+                ? Payment.PaymentStatus.FAILED : Payment.PaymentStatus.SUCCESS;
+    }
+
+    @Override
+    public Map<Long, Payment.PaymentStatus> settleAll(List<Payment> payments) {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return PaymentGateway.super.settleAll(payments);
+    }
+}
@@ -0,0 +1,76 @@
+-- Schema as of the faststart profile's introduction, matching what ddl-auto=update creates from the
+-- entities. Applied by spring.sql.init in the faststart profile (see application-faststart.properties);
+-- later changes go in new V<n>__<description>.sql scripts listed after this one. FastStartProfileTest
+-- validates the scripts against the entity mappings.
+
+create sequence if not exists orders_seq start with 1 increment by 50;
+create sequence if not exists order_line_items_seq start with 1 increment by 50;
+create sequence if not exists outbox_events_seq start with 1 increment by 50;
+
+create table if not exists orders (
+    id bigint not null,
+    customer_name varchar(255),
+    items varchar(255),
+    total_amount bigint,
+    status enum ('PLACED','PROCESSING','SHIPPED','DELIVERED','CANCELLED'),
+    created_at timestamp(6),
+    version bigint,
+    primary key (id)
+);
+create index if not exists idx_orders_status_id on orders (status, id);
+create index if not exists idx_orders_customer_name_id on orders (customer_name, id);
+create index if not exists idx_orders_created_at_id on orders (created_at, id);
+
+create table if not exists order_line_items (
+    id bigint not null,
+    order_id bigint not null,
+    sku varchar(64) not null,
+    quantity integer not null,
+    unit_price_minor bigint not null,
+    primary key (id),
+    constraint fk_order_line_items_order_id foreign key (order_id) references orders on delete cascade
+);
+create index if not exists idx_order_line_items_order_id on order_line_items (order_id);
+create index if not exists idx_order_line_items_sku on order_line_items (sku);
+
+create table if not exists payments (
+    id bigint generated by default as identity,
+    order_id bigint not null,
+    amount bigint not null,
+    payment_method enum ('CREDIT_CARD','DEBIT_CARD','UPI','NET_BANKING') not null,
+    status enum ('PENDING','SUCCESS','FAILED','REFUNDED') not null,
+    transaction_reference varchar(255),
+    paid_at timestamp(6),
+    refunded_at timestamp(6),
+    version bigint,
+    primary key (id),
+    constraint uk_payments_order_id unique (order_id)
+);
+
+create table if not exists idempotency_records (
+    idempotency_key varchar(300) not null,
+    status_code integer not null,
+    response_body varchar(8192) not null,
+    created_at timestamp(6) not null,
+    primary key (idempotency_key)
+);
+create index if not exists idx_idempotency_records_created_at on idempotency_records (created_at);
+
+create table if not exists outbox_events (
+    id bigint not null,
+    type varchar(32) not null,
+    order_id bigint not null,
+    customer_name varchar(255),
+    status varchar(32),
+    previous_status varchar(32),
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+create index if not exists idx_outbox_events_created_at on outbox_events (created_at);
+
+create table if not exists analytics_summary (
+    metric varchar(64) not null,
+    count bigint not null,
+    amount_minor bigint not null,
+    primary key (metric)
+);
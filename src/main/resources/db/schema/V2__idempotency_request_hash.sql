@@ -0,0 +1,6 @@
+-- Idempotency records keep a hash of the request, so a key reused for another request can be
+-- rejected, and responses of any size. Records stored before this script have an empty hash and are
+-- replayed without the check until they expire. Re-run on every start, like V1, so kept idempotent.
+
+alter table idempotency_records add column if not exists request_hash varchar(64) default '' not null;
+alter table idempotency_records alter column response_body set data type clob;
@@ -0,0 +1,148 @@
+package com.example.orderservice;
+
+import com.example.orderservice.config.AdaptiveConcurrencyLimiter;
+import com.example.orderservice.config.AdmissionControlFilter;
+import com.example.orderservice.config.ClientRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String PROXY = "10.0.0.2";
+
+    @Test
+    @DisplayName("Token buckets are per client, refill at the rate and report the wait")
+    void tokenBuckets() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 100, Duration.ofMinutes(1));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(100 * MS, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("b", 0));
+        assertEquals(0, limiter.tryAcquire("a", 100 * MS));
+        assertTrue(limiter.tryAcquire("a", 100 * MS) > 0);
+    }
+
+    @Test
+    @DisplayName("The concurrency limit backs off on slow windows and grows while in use")
+    void aimd() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 12, 100 * MS, 2, 0.5);
+        runWindow(limiter, 10, 500 * MS);
+        assertEquals(5, limiter.limit());
+        runWindow(limiter, 5, 500 * MS);
+        runWindow(limiter, 2, 500 * MS);
+        assertEquals(2, limiter.limit());
+        runWindow(limiter, 2, 10 * MS);
+        assertEquals(3, limiter.limit());
+        // Fast but mostly idle: no evidence the limit is too low
+        runWindow(limiter, 1, 10 * MS);
+        assertEquals(3, limiter.limit());
+        for (int i = 0; i < 20; i++) {
+            runWindow(limiter, limiter.limit(), 10 * MS);
+        }
+        assertEquals(12, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("Payment writes keep headroom that list reads cannot take")
+    void priorities() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 10, 100 * MS, 50, 0.9);
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new ClientRateLimiter(1000, 1000, 100, Duration.ofMinutes(1)), limiter, Duration.ofSeconds(2),
+                Set.of(), new SimpleMeterRegistry());
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire(1.0));
+        }
+
+        MockHttpServletResponse list = run(filter, request("GET", "/api/orders"));
+        assertEquals(503, list.getStatus());
+        assertEquals("2", list.getHeader("Retry-After"));
+        assertTrue(list.getContentAsString().contains("\"error\":\"OVERLOADED\""));
+        assertEquals(200, run(filter, request("GET", "/api/orders/7")).getStatus());
+        assertEquals(200, run(filter, request("POST", "/api/orders/7/payments")).getStatus());
+        assertEquals(6, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("A client over its rate gets 429 without affecting other clients")
+    void rateLimited() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new ClientRateLimiter(1, 1, 100, Duration.ofMinutes(1)),
+                new AdaptiveConcurrencyLimiter(10, 1, 10, 100 * MS, 50, 0.9), Duration.ofSeconds(1),
+                Set.of(PROXY), registry);
+
+        assertEquals(200, run(filter, viaProxy("noisy")).getStatus());
+        MockHttpServletResponse rejected = run(filter, viaProxy("noisy"));
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(200, run(filter, viaProxy("quiet")).getStatus());
+        assertEquals(200, run(filter, request("GET", "/api/orders/7")).getStatus());
+        assertEquals(1, registry.get("admission.rejected").tag("reason", "RATE_LIMITED").tag("priority", "STANDARD")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("X-Client-Id from outside the trusted proxies does not buy a fresh bucket")
+    void untrustedClientId() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new ClientRateLimiter(1, 1, 100, Duration.ofMinutes(1)),
+                new AdaptiveConcurrencyLimiter(10, 1, 10, 100 * MS, 50, 0.9), Duration.ofSeconds(1),
+                Set.of(PROXY), new SimpleMeterRegistry());
+        MockHttpServletRequest first = request("GET", "/api/orders/7");
+        first.addHeader(AdmissionControlFilter.CLIENT_ID_HEADER, "a");
+        MockHttpServletRequest second = request("GET", "/api/orders/7");
+        second.addHeader(AdmissionControlFilter.CLIENT_ID_HEADER, "b");
+
+        assertEquals(200, run(filter, first).getStatus());
+        assertEquals(429, run(filter, second).getStatus());
+    }
+
+    /** One window of two latency samples, taken with {@code concurrent} requests in flight. */
+    private static void runWindow(AdaptiveConcurrencyLimiter limiter, int concurrent, long latencyNanos) {
+        if (concurrent == 1) {
+            for (int i = 0; i < 2; i++) {
+                assertTrue(limiter.tryAcquire(1.0));
+                limiter.release(latencyNanos);
+            }
+            return;
+        }
+        for (int i = 0; i < concurrent; i++) {
+            assertTrue(limiter.tryAcquire(1.0));
+        }
+        for (int i = 0; i < concurrent; i++) {
+            limiter.release(i < 2 ? latencyNanos : -1);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        return new MockHttpServletRequest(method, path);
+    }
+
+    private static MockHttpServletRequest viaProxy(String clientId) {
+        MockHttpServletRequest request = request("GET", "/api/orders/7");
+        request.setRemoteAddr(PROXY);
+        request.addHeader(AdmissionControlFilter.CLIENT_ID_HEADER, clientId);
+        return request;
+    }
+
+    private static MockHttpServletResponse run(AdmissionControlFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
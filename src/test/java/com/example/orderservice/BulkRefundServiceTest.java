@@ -0,0 +1,61 @@
+package com.example.orderservice;
+
+import com.example.orderservice.model.BulkRefundRequest;
+import com.example.orderservice.model.BulkRefundResponse;
+import com.example.orderservice.model.BulkRefundResult;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PaymentRepository;
+import com.example.orderservice.service.BulkRefundService;
+import com.example.orderservice.service.OrderCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkRefundServiceTest {
+
+    @Mock OrderRepository orderRepository;
+    @Mock PaymentRepository paymentRepository;
+    @Mock OrderCache orderCache;
+    @Mock ApplicationEventPublisher events;
+    @Mock EntityManager entityManager;
+    @Mock PlatformTransactionManager transactionManager;
+    BulkRefundService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkRefundService(orderRepository, paymentRepository, orderCache, events, entityManager,
+                transactionManager, 1, 2, 100, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("An unexpected failure in one chunk marks only that chunk FAILED")
+    void failingChunk() {
+        when(orderRepository.lockRefundEntries(List.of(1L))).thenThrow(new IllegalStateException("boom"));
+        when(orderRepository.lockRefundEntries(List.of(2L))).thenReturn(List.of());
+
+        BulkRefundResponse response = service.refund(new BulkRefundRequest(List.of(1L, 2L), null));
+
+        assertEquals(1, response.failed());
+        assertEquals(1, response.notFound());
+        assertEquals(BulkRefundResult.failed(1L, "UPDATE_FAILED"), response.items().get(0));
+        assertEquals(BulkRefundResult.Outcome.NOT_FOUND, response.items().get(1).outcome());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The faststart profile on its own database: the schema comes only from db/schema, and Hibernate
+ * validating it against the entities fails the context when a script falls behind a mapping change.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:faststart",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@ActiveProfiles("faststart")
+@AutoConfigureMockMvc
+class FastStartProfileTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Faststart: schema scripts match the entities, API docs are off")
+    void schemaScriptsMatchEntities() throws Exception {
+        String created = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Fay\",\"items\":\"Widget\",\"totalAmount\":25.0}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = created.replaceAll(".*\"id\":(\\d+).*", "$1");
+        mockMvc.perform(post("/api/orders/{id}/payments", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paymentMethod\":\"UPI\",\"amount\":25.0}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/orders/{id}/payments/refund", id)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/v3/api-docs")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Faststart: V2 upgrades idempotency records created by the original V1, and re-runs cleanly")
+    void idempotencyUpgrade() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:faststart-upgrade")) {
+            connection.createStatement().execute("create table idempotency_records (idempotency_key varchar(300) not null,"
+                    + " status_code integer not null, response_body varchar(8192) not null,"
+                    + " created_at timestamp(6) not null, primary key (idempotency_key))");
+            connection.createStatement().execute(
+                    "insert into idempotency_records values ('k', 201, '{}', current_timestamp)");
+            Resource v2 = new ClassPathResource("db/schema/V2__idempotency_request_hash.sql");
+            ScriptUtils.executeSqlScript(connection, v2);
+            ScriptUtils.executeSqlScript(connection, v2);
+
+            ResultSet row = connection.createStatement().executeQuery(
+                    "select request_hash, response_body from idempotency_records");
+            Assertions.assertTrue(row.next());
+            Assertions.assertEquals("", row.getString(1));
+            Assertions.assertEquals(Types.CLOB, row.getMetaData().getColumnType(2));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.orderservice;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.PaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Decimals parse exactly into minor units")
+    void parse() {
+        assertEquals(154999, Money.parse("1549.99").minor());
+        assertEquals(1000, Money.parse("10").minor());
+        assertEquals(1050, Money.parse("10.5").minor());
+        assertEquals(1050, Money.parse("10.5000").minor());
+        assertEquals(5, Money.parse("0.05").minor());
+        assertEquals(-120, Money.parse("-1.20").minor());
+        assertEquals(Money.parse("0.30"), Money.ofMinor(30));
+    }
+
+    @Test
+    @DisplayName("Sub-cent, exponent, malformed and overflowing amounts are rejected")
+    void parseRejects() {
+        for (String text : new String[]{"100.001", "1e2", "1.2.3", "", "-", ".", "12a", "92233720368547758.08"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(text), text);
+        }
+    }
+
+    @Test
+    @DisplayName("Amounts format with the currency's decimal places")
+    void format() {
+        assertEquals("1549.99", Money.ofMinor(154999).toString());
+        assertEquals("0.05", Money.ofMinor(5).toString());
+        assertEquals("0.00", Money.ofMinor(0).toString());
+        assertEquals("-1.20", Money.ofMinor(-120).toString());
+        assertEquals("-92233720368547758.08", Money.ofMinor(Long.MIN_VALUE).toString());
+    }
+
+    @Test
+    @DisplayName("JSON numbers and numeric strings round-trip as plain numbers")
+    void json() throws Exception {
+        PaymentRequest request = objectMapper.readValue("{\"amount\":1549.99}", PaymentRequest.class);
+        assertEquals(Money.ofMinor(154999), request.getAmount());
+        assertEquals(Money.ofMinor(700), objectMapper.readValue("\"7\"", Money.class));
+        assertEquals("{\"paymentMethod\":null,\"amount\":1549.99,\"transactionReference\":null}",
+                objectMapper.writeValueAsString(request));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("0.001", Money.class));
+    }
+}
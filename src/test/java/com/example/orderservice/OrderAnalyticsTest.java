@@ -0,0 +1,73 @@
+package com.example.orderservice;
+
+import com.example.orderservice.event.OrderChangedEvent;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.AnalyticsSummaryRepository;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PaymentRepository;
+import com.example.orderservice.service.OrderAnalytics;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderAnalyticsTest {
+
+    @Mock OrderRepository orderRepository;
+    @Mock PaymentRepository paymentRepository;
+    @Mock AnalyticsSummaryRepository summaryRepository;
+    @Mock EntityManager entityManager;
+    @Mock PlatformTransactionManager transactionManager;
+    OrderAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        analytics = new OrderAnalytics(orderRepository, paymentRepository, summaryRepository, entityManager,
+                transactionManager, Duration.ofDays(7));
+        when(paymentRepository.streamAnalyticsEntries(any())).thenReturn(Stream.empty());
+    }
+
+    @Test
+    @DisplayName("An order committed during a rebuild is counted once whether or not the scan saw it")
+    void changesDuringRebuild() {
+        Order seen = order(1L, "10.00");
+        Order unseen = order(2L, "5.00");
+        // Both commit while the scan runs; only the first is in its snapshot.
+        when(orderRepository.streamAnalyticsEntries()).thenAnswer(inv -> {
+            analytics.onOrderChanged(OrderChangedEvent.created(seen));
+            analytics.onOrderChanged(OrderChangedEvent.created(unseen));
+            return Stream.<Object[]>of(new Object[]{Order.OrderStatus.PLACED, seen.getTotalAmount(), LocalDateTime.now()});
+        });
+        when(orderRepository.findAnalyticsStates(List.of(1L, 2L))).thenReturn(
+                List.<Object[]>of(new Object[]{1L, Order.OrderStatus.PLACED, seen.getTotalAmount()}));
+
+        analytics.rebuild();
+
+        var placed = analytics.report().ordersByStatus().get(Order.OrderStatus.PLACED);
+        assertEquals(2, placed.count());
+        assertEquals(1500, placed.amountMinor());
+    }
+
+    private static Order order(Long id, String amount) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(Order.OrderStatus.PLACED);
+        order.setTotalAmount(Money.parse(amount));
+        return order;
+    }
+}
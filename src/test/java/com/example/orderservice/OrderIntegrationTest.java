@@ -0,0 +1,439 @@
+package com.example.orderservice;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLineItem;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PaymentRepository;
+import com.example.orderservice.service.ChangeStreamService;
+import com.example.orderservice.service.OrderIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderIntegrationTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PaymentRepository paymentRepository;
+    @Autowired OrderIndex orderIndex;
+    @Autowired ChangeStreamService changeStreamService;
+
+    @BeforeEach
+    void cleanUp() {
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    private Long createOrder(String customer, Order.OrderStatus status) {
+        Order order = new Order();
+        order.setCustomerName(customer);
+        order.setItems("Widget");
+        order.setTotalAmount(Money.parse("10.0"));
+        order.setStatus(status);
+        return orderRepository.save(order).getId();
+    }
+
+    @Test
+    @DisplayName("Keyset pages walk every matching order exactly once")
+    void keysetPagination() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(createOrder("Alice", Order.OrderStatus.PLACED));
+            createOrder("Bob", Order.OrderStatus.PLACED);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        do {
+            var request = get("/api/orders").param("customerName", "Alice").param("limit", "2");
+            if (cursor != null) {
+                request.param("after", cursor.toString());
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asLong();
+        } while (cursor != null);
+
+        Assertions.assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("Status filter and page size cap are applied")
+    void statusFilterAndCap() throws Exception {
+        createOrder("Alice", Order.OrderStatus.PLACED);
+        Long shipped = createOrder("Alice", Order.OrderStatus.SHIPPED);
+
+        mockMvc.perform(get("/api/orders").param("status", "SHIPPED").param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(shipped))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Export streams one JSON document per line, with line items and joined with payments")
+    void ndjsonExport() throws Exception {
+        Long paid = createOrder("Alice", Order.OrderStatus.PLACED);
+        Long unpaid = createOrder("Bob", Order.OrderStatus.PLACED);
+        Payment payment = new Payment();
+        payment.setOrderId(paid);
+        payment.setAmount(Money.parse("10.0"));
+        payment.setPaymentMethod(Payment.PaymentMethod.UPI);
+        payment.setStatus(Payment.PaymentStatus.SUCCESS);
+        paymentRepository.save(payment);
+        Order itemized = new Order();
+        itemized.setCustomerName("Cara");
+        itemized.setStatus(Order.OrderStatus.PLACED);
+        itemized.setTotalAmount(Money.parse("10.0"));
+        itemized.addLineItem(new OrderLineItem("WIDGET", 2, 500));
+        Long itemizedId = orderRepository.save(itemized).getId();
+
+        String body = mockMvc.perform(get("/api/orders/export").param("includePayments", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(3, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        Assertions.assertEquals(paid, first.get("order").get("id").asLong());
+        Assertions.assertEquals("SUCCESS", first.get("payment").get("status").asText());
+        Assertions.assertEquals(unpaid, second.get("order").get("id").asLong());
+        Assertions.assertTrue(second.get("payment").isNull());
+        JsonNode third = objectMapper.readTree(lines[2]);
+        Assertions.assertEquals(itemizedId, third.get("order").get("id").asLong());
+        Assertions.assertEquals("WIDGET", third.get("order").get("lineItems").get(0).get("sku").asText());
+    }
+
+    @Test
+    @DisplayName("Bulk create inserts valid orders and reports rejected ones per item")
+    void bulkCreate() throws Exception {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            orders.add(Map.of("customerName", "Bulk " + i, "items", "Widget", "totalAmount", 5.0));
+        }
+        orders.add(Map.of("customerName", "", "items", "Widget", "totalAmount", 5.0));
+        orders.add(Map.of("customerName", "No Amount", "items", "Widget"));
+
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orders)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(120))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.items[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].id").exists())
+                .andExpect(jsonPath("$.items[120].error").value("CUSTOMER_NAME_REQUIRED"))
+                .andExpect(jsonPath("$.items[121].error").value("INVALID_TOTAL_AMOUNT"));
+
+        Assertions.assertEquals(120, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Bulk create accepts newline-delimited JSON")
+    void bulkCreateNdjson() throws Exception {
+        String body = "{\"customerName\":\"A\",\"items\":\"X\",\"totalAmount\":1.5}\n"
+                + "{\"customerName\":\"B\",\"items\":\"Y\",\"totalAmount\":2.5}\n";
+
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.truncated").value(false));
+    }
+
+    @Test
+    @DisplayName("A malformed NDJSON line is rejected on its own; the lines around it are still created")
+    void bulkCreateNdjsonMalformedLine() throws Exception {
+        String body = "{\"customerName\":\"A\",\"items\":\"X\",\"totalAmount\":1.5}\n"
+                + "{\"customerName\":\"B\",\"totalAmount\":\n"
+                + "\n"
+                + "{\"customerName\":\"C\",\"items\":\"Z\",\"totalAmount\":3.5}\n";
+
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.items[1].index").value(1))
+                .andExpect(jsonPath("$.items[1].error").value("MALFORMED_JSON"))
+                .andExpect(jsonPath("$.items[2].outcome").value("CREATED"));
+    }
+
+    @Test
+    @DisplayName("Status transitions follow the state machine with one conditional update")
+    void statusTransitions() throws Exception {
+        Long id = createOrder("Alice", Order.OrderStatus.PLACED);
+
+        mockMvc.perform(post("/api/orders/{id}/transitions", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PROCESSING\",\"expectedStatus\":\"PLACED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PROCESSING"));
+
+        mockMvc.perform(post("/api/orders/{id}/transitions", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"DELIVERED\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("INVALID_TRANSITION"));
+
+        mockMvc.perform(post("/api/orders/{id}/transitions", 999999)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isNotFound());
+
+        Order order = orderRepository.findById(id).orElseThrow();
+        Assertions.assertEquals(Order.OrderStatus.PROCESSING, order.getStatus());
+        Assertions.assertEquals(1L, order.getVersion());
+    }
+
+    @Test
+    @DisplayName("PATCH updates only supplied fields; DELETE removes by id")
+    void patchAndDelete() throws Exception {
+        Long id = createOrder("Alice", Order.OrderStatus.PLACED);
+
+        mockMvc.perform(patch("/api/orders/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Alicia\",\"status\":\"CANCELLED\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerName").value("Alicia"))
+                .andExpect(jsonPath("$.items").value("Widget"))
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+
+        mockMvc.perform(patch("/api/orders/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/api/orders/{id}", id)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/orders/{id}", id)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/orders/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Line items: total computed server-side, SKU filter and summary, legacy migration")
+    void lineItems() throws Exception {
+        String body = "{\"customerName\":\"Alice\",\"lineItems\":["
+                + "{\"sku\":\"MOUSE\",\"quantity\":2,\"unitPriceMinor\":1999},"
+                + "{\"sku\":\"LAPTOP\",\"quantity\":1,\"unitPriceMinor\":149900}]}";
+        String created = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.totalAmount").value(1538.98))
+                .andExpect(jsonPath("$.items").value("2x MOUSE, 1x LAPTOP"))
+                .andExpect(jsonPath("$.lineItems.length()").value(2))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("{\"customerName\"", "{\"totalAmount\":1.0,\"customerName\"")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("TOTAL_MISMATCH"));
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Bob\",\"lineItems\":[{\"sku\":\"A\\\"B\",\"quantity\":0,\"unitPriceMinor\":1}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_LINE_ITEM"))
+                .andExpect(jsonPath("$.message").value("Line item quantity must be positive for sku A\"B"));
+
+        createOrder("Bob", Order.OrderStatus.PLACED);
+        mockMvc.perform(get("/api/orders").param("sku", "MOUSE"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(id));
+        mockMvc.perform(get("/api/orders/skus/{sku}", "MOUSE"))
+                .andExpect(jsonPath("$.orders").value(1))
+                .andExpect(jsonPath("$.quantity").value(2))
+                .andExpect(jsonPath("$.revenueMinor").value(3998));
+
+        Long legacy = createOrder("Carol", Order.OrderStatus.PLACED);
+        orderRepository.findById(legacy).ifPresent(order -> {
+            order.setItems("99999999999x Mouse, Cable x3");
+            orderRepository.save(order);
+        });
+
+        mockMvc.perform(post("/api/orders/line-items/migrate"))
+                .andExpect(jsonPath("$.migrated").value(2));
+        mockMvc.perform(get("/api/orders/skus/{sku}", "WIDGET"))
+                .andExpect(jsonPath("$.quantity").value(1));
+        mockMvc.perform(get("/api/orders/skus/{sku}", "99999999999X-MOUSE"))
+                .andExpect(jsonPath("$.quantity").value(1));
+        mockMvc.perform(get("/api/orders/skus/{sku}", "CABLE"))
+                .andExpect(jsonPath("$.quantity").value(3));
+    }
+
+    @Test
+    @DisplayName("Index lookups follow writes made through the API")
+    void indexLookups() throws Exception {
+        // Rows written straight through the repository bypass the index, so start from a fresh build.
+        Long shipped = createOrder("Alice", Order.OrderStatus.SHIPPED);
+        createOrder("Alice", Order.OrderStatus.DELIVERED);
+        orderIndex.rebuild();
+        Assertions.assertTrue(orderIndex.isReady());
+
+        String created = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Alice\",\"items\":\"Widget\",\"totalAmount\":10.0}"))
+                .andReturn().getResponse().getContentAsString();
+        long placed = objectMapper.readTree(created).get("id").asLong();
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerName\":\"Bob\",\"items\":\"Widget\",\"totalAmount\":10.0}"));
+
+        mockMvc.perform(get("/api/orders/lookup").param("customerName", "Alice").param("open", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(shipped))
+                .andExpect(jsonPath("$.items[1].id").value(placed));
+
+        mockMvc.perform(post("/api/orders/{id}/transitions", placed).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PROCESSING\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/lookup").param("status", "PROCESSING"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(placed));
+
+        mockMvc.perform(patch("/api/orders/{id}", placed).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Alicia\"}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/orders/lookup").param("customerName", "Alice").param("limit", "1"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(shipped));
+        mockMvc.perform(get("/api/orders/lookup").param("customerName", "Alicia"))
+                .andExpect(jsonPath("$.items[0].id").value(placed));
+
+        mockMvc.perform(delete("/api/orders/{id}", placed)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/orders/lookup").param("status", "PROCESSING"))
+                .andExpect(jsonPath("$.items.length()").value(0));
+        mockMvc.perform(get("/api/orders/lookup")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Change stream replays from an offset, then pushes live changes matching the filter")
+    void changeStream() throws Exception {
+        String created = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Carol\",\"items\":\"Widget\",\"totalAmount\":10.0}"))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerName\":\"Dave\",\"items\":\"Widget\",\"totalAmount\":10.0}"));
+
+        MvcResult stream = mockMvc.perform(get("/api/changes/stream")
+                        .param("customerName", "Carol")
+                        .header("Last-Event-ID", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The event and data lines are written separately; wait for the data
+        String replayed = awaitContent(stream, "\"orderId\":" + id);
+        Assertions.assertTrue(replayed.contains("event:ORDER_CREATED"));
+        Assertions.assertFalse(replayed.contains("Dave"));
+
+        mockMvc.perform(post("/api/orders/{id}/transitions", id).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"PROCESSING\"}"));
+        changeStreamService.poll();
+        String live = awaitContent(stream, "\"status\":\"PROCESSING\"");
+        Assertions.assertTrue(live.contains("event:ORDER_UPDATED"));
+        Assertions.assertTrue(live.contains("\"previousStatus\":\"PLACED\""));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String content = result.getResponse().getContentAsString();
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(50);
+        }
+        return Assertions.fail("Stream never contained " + expected + ": " + result.getResponse().getContentAsString());
+    }
+
+    @Test
+    @DisplayName("ETags: If-None-Match answers 304, If-Match guards PUT with 412")
+    void conditionalRequests() throws Exception {
+        Long id = createOrder("Erin", Order.OrderStatus.PLACED);
+        String etag = mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/orders/{id}", id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        String body = "{\"customerName\":\"Erin\",\"items\":\"Gadget\",\"totalAmount\":10.0,\"status\":\"PLACED\"}";
+        mockMvc.perform(put("/api/orders/{id}", id).header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        mockMvc.perform(put("/api/orders/{id}", id).header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("PRECONDITION_FAILED"));
+        mockMvc.perform(get("/api/orders/{id}", id).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").value("Gadget"));
+
+        mockMvc.perform(post("/api/orders/{id}/payments", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paymentMethod\":\"UPI\",\"amount\":10.00}"))
+                .andExpect(status().isCreated());
+        String paymentEtag = mockMvc.perform(get("/api/orders/{id}/payments", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/orders/{id}/payments", id).header("If-None-Match", paymentEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(post("/api/orders/{id}/payments/refund", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/{id}/payments", id).header("If-None-Match", paymentEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REFUNDED"));
+    }
+
+    @Test
+    @DisplayName("Final-state orders are served from cached bytes until a write evicts them")
+    void terminalResponseCache() throws Exception {
+        Long id = createOrder("Frank", Order.OrderStatus.DELIVERED);
+        long hits = objectMapper.readTree(mockMvc.perform(get("/api/cache/stats"))
+                .andReturn().getResponse().getContentAsString()).at("/orderResponses/hits").asLong();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/orders/{id}", id))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string("ETag", "\"0\""))
+                    .andExpect(jsonPath("$.items").value("Widget"));
+        }
+        mockMvc.perform(get("/api/cache/stats"))
+                .andExpect(jsonPath("$.orderResponses.hits").value(hits + 1));
+
+        mockMvc.perform(put("/api/orders/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Frank\",\"items\":\"Gadget\",\"totalAmount\":10.0,\"status\":\"DELIVERED\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.items").value("Gadget"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.orderservice;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"payments.processing.mode=async", "payments.processing.batch-size=10"})
+@AutoConfigureMockMvc
+class PaymentAsyncIntegrationTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PaymentRepository paymentRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void cleanUp() {
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    private Long createOrder() {
+        Order order = new Order();
+        order.setCustomerName("Test User");
+        order.setItems("Widget");
+        order.setTotalAmount(Money.parse("50.0"));
+        return orderRepository.save(order).getId();
+    }
+
+    private String awaitSettled(Long orderId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String status = objectMapper.readTree(mockMvc.perform(get("/api/orders/{id}/payments", orderId))
+                    .andReturn().getResponse().getContentAsString()).get("status").asText();
+            if (!"PENDING".equals(status)) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return "PENDING";
+    }
+
+    @Test
+    @DisplayName("Async mode: 202 with a PENDING payment, settled by the workers")
+    void paymentsSettleAsynchronously() throws Exception {
+        Long approved = createOrder();
+        Long declined = createOrder();
+
+        mockMvc.perform(post("/api/orders/{id}/payments", approved)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("paymentMethod", "UPI", "amount", 50.0))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+        mockMvc.perform(post("/api/orders/{id}/payments", declined)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("paymentMethod", "UPI", "amount", 50.0,
+                                "transactionReference", "DECLINE-1"))))
+                .andExpect(status().isAccepted());
+
+        Assertions.assertEquals("SUCCESS", awaitSettled(approved));
+        Assertions.assertEquals("FAILED", awaitSettled(declined));
+
+        mockMvc.perform(post("/api/orders/{id}/payments/refund", approved))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REFUNDED"));
+    }
+
+    @Test
+    @DisplayName("A payment locked for settlement is skipped, not settled again, by a second claim")
+    void settlementClaimSkipsLockedRows() throws Exception {
+        Payment payment = new Payment();
+        payment.setOrderId(createOrder());
+        payment.setAmount(Money.parse("50.0"));
+        payment.setPaymentMethod(Payment.PaymentMethod.UPI);
+        // Stored directly, so the workers never see it
+        Long id = paymentRepository.save(payment).getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        tx.executeWithoutResult(first -> {
+            Assertions.assertEquals(1, paymentRepository.lockPendingForSettlement(List.of(id)).size());
+            CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> tx.execute(other ->
+                    paymentRepository.lockPendingForSettlement(List.of(id)).size()));
+            Assertions.assertEquals(0, second.join());
+        });
+        Integer afterRelease = tx.execute(again ->
+                paymentRepository.lockPendingForSettlement(List.of(id)).size());
+        Assertions.assertEquals(1, afterRelease);
+    }
+}
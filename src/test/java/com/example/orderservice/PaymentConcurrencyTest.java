@@ -0,0 +1,77 @@
+package com.example.orderservice;
+
+import com.example.orderservice.exception.PaymentConflictException;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.model.PaymentRequest;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PaymentRepository;
+import com.example.orderservice.service.PaymentService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+class PaymentConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired PaymentService paymentService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PaymentRepository paymentRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Concurrent payments for one order: exactly one succeeds, the rest conflict")
+    void concurrentCreatePaymentOnSameOrder() throws Exception {
+        Order order = new Order();
+        order.setCustomerName("Hot Order");
+        order.setItems("Widget");
+        order.setTotalAmount(Money.parse("99.0"));
+        Long orderId = orderRepository.save(order).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    PaymentRequest request = new PaymentRequest();
+                    request.setPaymentMethod(Payment.PaymentMethod.UPI);
+                    request.setAmount(Money.parse("99.0"));
+                    start.await();
+                    try {
+                        paymentService.createPayment(orderId, request);
+                        created.incrementAndGet();
+                    } catch (PaymentConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, created.get());
+        Assertions.assertEquals(THREADS - 1, conflicts.get());
+        Assertions.assertEquals(1, paymentRepository.count());
+    }
+}
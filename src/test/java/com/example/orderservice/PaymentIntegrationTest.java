@@ -1,8 +1,10 @@
 package com.example.orderservice;
 
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.repository.OrderRepository;
 import com.example.orderservice.repository.PaymentRepository;
+import com.example.orderservice.service.OrderAnalytics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +13,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -24,6 +28,7 @@ class PaymentIntegrationTest {
     @Autowired ObjectMapper objectMapper;
     @Autowired OrderRepository orderRepository;
     @Autowired PaymentRepository paymentRepository;
+    @Autowired OrderAnalytics orderAnalytics;
 
     @BeforeEach
     void cleanUp() {
@@ -31,18 +36,18 @@ class PaymentIntegrationTest {
         orderRepository.deleteAll();
     }
 
-    private Long createOrder(double amount) {
+    private Long createOrder(String amount) {
         Order order = new Order();
         order.setCustomerName("Test User");
         order.setItems("Widget");
-        order.setTotalAmount(amount);
+        order.setTotalAmount(Money.parse(amount));
         return orderRepository.save(order).getId();
     }
 
     @Test
     @DisplayName("Happy path: create order -> pay -> get payment -> refund -> verify")
     void fullPaymentLifecycle() throws Exception {
-        Long orderId = createOrder(500.00);
+        Long orderId = createOrder("500.00");
 
         Map<String, Object> payReq = Map.of(
                 "paymentMethod", "CREDIT_CARD",
@@ -88,7 +93,7 @@ class PaymentIntegrationTest {
     @Test
     @DisplayName("Pay wrong amount -> 400 AMOUNT_MISMATCH")
     void payWrongAmount() throws Exception {
-        Long orderId = createOrder(500.00);
+        Long orderId = createOrder("500.00");
         Map<String, Object> payReq = Map.of("paymentMethod", "UPI", "amount", 100.00);
         mockMvc.perform(post("/api/orders/{id}/payments", orderId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -97,10 +102,23 @@ class PaymentIntegrationTest {
                 .andExpect(jsonPath("$.error").value("AMOUNT_MISMATCH"));
     }
 
+    @Test
+    @DisplayName("Pay with sub-cent or non-positive amount -> 400")
+    void payInvalidAmount() throws Exception {
+        Long orderId = createOrder("10.00");
+        for (String amount : new String[]{"10.001", "0", "-10.00"}) {
+            mockMvc.perform(post("/api/orders/{id}/payments", orderId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"paymentMethod\":\"UPI\",\"amount\":" + amount + "}"))
+                    .andExpect(status().isBadRequest());
+        }
+        assertTrue(paymentRepository.findByOrderId(orderId).isEmpty());
+    }
+
     @Test
     @DisplayName("Pay already-paid order -> 409 PAYMENT_EXISTS")
     void payAlreadyPaidOrder() throws Exception {
-        Long orderId = createOrder(500.00);
+        Long orderId = createOrder("500.00");
         Map<String, Object> payReq = Map.of("paymentMethod", "NET_BANKING", "amount", 500.00);
 
         mockMvc.perform(post("/api/orders/{id}/payments", orderId)
@@ -118,7 +136,7 @@ class PaymentIntegrationTest {
     @Test
     @DisplayName("Refund unpaid order -> 404")
     void refundUnpaidOrder() throws Exception {
-        Long orderId = createOrder(500.00);
+        Long orderId = createOrder("500.00");
         mockMvc.perform(post("/api/orders/{id}/payments/refund", orderId))
                 .andExpect(status().isNotFound());
     }
@@ -126,7 +144,7 @@ class PaymentIntegrationTest {
     @Test
     @DisplayName("Pay order not in PLACED status -> 400 ORDER_NOT_PLACEABLE")
     void payOrderNotInPlacedStatus() throws Exception {
-        Long orderId = createOrder(500.00);
+        Long orderId = createOrder("500.00");
         Order order = orderRepository.findById(orderId).orElseThrow();
         order.setStatus(Order.OrderStatus.PROCESSING);
         orderRepository.save(order);
@@ -142,7 +160,7 @@ class PaymentIntegrationTest {
     @Test
     @DisplayName("Double refund -> 400 PAYMENT_NOT_REFUNDABLE")
     void refundAlreadyRefundedPayment() throws Exception {
-        Long orderId = createOrder(200.00);
+        Long orderId = createOrder("200.00");
         Map<String, Object> payReq = Map.of("paymentMethod", "CREDIT_CARD", "amount", 200.00);
 
         mockMvc.perform(post("/api/orders/{id}/payments", orderId)
@@ -157,4 +175,154 @@ class PaymentIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("PAYMENT_NOT_REFUNDABLE"));
     }
+
+    @Test
+    @DisplayName("Retry with same Idempotency-Key replays the original 201")
+    void idempotentRetryReplaysOriginalResponse() throws Exception {
+        Long orderId = createOrder("300.00");
+        Map<String, Object> payReq = Map.of("paymentMethod", "UPI", "amount", 300.00);
+
+        String first = mockMvc.perform(post("/api/orders/{id}/payments", orderId)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payReq)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        String replay = mockMvc.perform(post("/api/orders/{id}/payments", orderId)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payReq)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertEquals(objectMapper.readTree(first), objectMapper.readTree(replay));
+        Assertions.assertEquals(1, paymentRepository.count());
+
+        // The same key with another body is a client bug, not a retry
+        mockMvc.perform(post("/api/orders/{id}/payments", orderId)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("paymentMethod", "CREDIT_CARD", "amount", 300.00))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("IDEMPOTENCY_KEY_REUSED"));
+
+        // A different key still hits the one-payment-per-order rule
+        mockMvc.perform(post("/api/orders/{id}/payments", orderId)
+                        .header("Idempotency-Key", "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payReq)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Analytics counters follow payments and refunds and agree with a rebuild")
+    void analyticsCounters() throws Exception {
+        Long paidId = createOrder("120.50");
+        Long refundedId = createOrder("80.00");
+        orderAnalytics.rebuild();
+
+        for (Long id : new Long[]{paidId, refundedId}) {
+            double amount = id.equals(paidId) ? 120.50 : 80.00;
+            mockMvc.perform(post("/api/orders/{id}/payments", id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of("paymentMethod", "UPI", "amount", amount))))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(post("/api/orders/{id}/payments/refund", refundedId)).andExpect(status().isOk());
+
+        String live = mockMvc.perform(get("/api/analytics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ordersByStatus.PLACED.count").value(1))
+                .andExpect(jsonPath("$.ordersByStatus.PLACED.amountMinor").value(12050))
+                .andExpect(jsonPath("$.ordersByStatus.CANCELLED.amountMinor").value(8000))
+                .andExpect(jsonPath("$.paymentsByMethod.UPI.count").value(2))
+                .andExpect(jsonPath("$.paymentsByMethod.UPI.amountMinor").value(20050))
+                .andExpect(jsonPath("$.refunds.amountMinor").value(8000))
+                .andReturn().getResponse().getContentAsString();
+
+        String rebuilt = mockMvc.perform(post("/api/analytics/rebuild"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        for (String field : new String[]{"ordersByStatus", "paymentsByMethod", "refunds", "hourly"}) {
+            Assertions.assertEquals(objectMapper.readTree(live).get(field), objectMapper.readTree(rebuilt).get(field));
+        }
+    }
+
+    @Test
+    @DisplayName("Bulk refund refunds paid orders, cancels open unpaid ones and reports the rest")
+    void bulkRefund() throws Exception {
+        Long paid = createOrder("25.00");
+        Long unpaid = createOrder("30.00");
+        Long delivered = createOrder("35.00");
+        orderRepository.updateStatus(delivered, Order.OrderStatus.PLACED, Order.OrderStatus.DELIVERED);
+        mockMvc.perform(post("/api/orders/{id}/payments", paid)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("paymentMethod", "UPI", "amount", 25.00))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/orders/{id}/payments", paid)).andExpect(status().isOk());
+
+        Map<String, Object> request = Map.of("orderIds", List.of(paid, unpaid, delivered, 999999L, paid));
+        mockMvc.perform(post("/api/orders/bulk/refund")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refunded").value(1))
+                .andExpect(jsonPath("$.cancelled").value(1))
+                .andExpect(jsonPath("$.notFound").value(1))
+                .andExpect(jsonPath("$.notRefundable").value(1))
+                .andExpect(jsonPath("$.items.length()").value(4))
+                .andExpect(jsonPath("$.items[0].outcome").value("REFUNDED"))
+                .andExpect(jsonPath("$.items[2].error").value("ORDER_DELIVERED"));
+
+        // The cached payment was evicted, so reads see the set-based updates.
+        mockMvc.perform(get("/api/orders/{id}/payments", paid))
+                .andExpect(jsonPath("$.status").value("REFUNDED"));
+        Assertions.assertEquals(Order.OrderStatus.CANCELLED, orderRepository.findStatusById(paid).orElseThrow());
+        Assertions.assertEquals(Order.OrderStatus.CANCELLED, orderRepository.findStatusById(unpaid).orElseThrow());
+
+        // Repeating by filter finds nothing left to do for this customer.
+        mockMvc.perform(post("/api/orders/bulk/refund")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"customerName\":\"Test User\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notRefundable").value(3));
+
+        mockMvc.perform(post("/api/orders/bulk/refund")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("BULK_TARGET_REQUIRED"));
+    }
+
+    @Test
+    @DisplayName("Order views: order plus payment in one response, single and paged")
+    void orderViews() throws Exception {
+        Long paid = createOrder("75.00");
+        Long unpaid = createOrder("20.00");
+        mockMvc.perform(post("/api/orders/{id}/payments", paid).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paymentMethod\":\"UPI\",\"amount\":75.00}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/orders/{id}/view", paid))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(75.0))
+                .andExpect(jsonPath("$.payment.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.payment.amount").value(75.0))
+                .andExpect(jsonPath("$.payment.version").exists());
+        mockMvc.perform(get("/api/orders/{id}/view", unpaid))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payment").doesNotExist());
+        mockMvc.perform(get("/api/orders/{id}/view", 999999)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/orders/views").param("customerName", "Test User").param("limit", "1"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(paid))
+                .andExpect(jsonPath("$.nextCursor").value(paid));
+        mockMvc.perform(get("/api/orders/views").param("after", paid.toString()))
+                .andExpect(jsonPath("$.items[0].id").value(unpaid))
+                .andExpect(jsonPath("$.items[0].payment").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
 }
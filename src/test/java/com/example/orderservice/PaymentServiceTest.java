@@ -1,17 +1,25 @@
 package com.example.orderservice;
 
 import com.example.orderservice.exception.*;
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.Payment;
 import com.example.orderservice.model.PaymentRequest;
 import com.example.orderservice.repository.OrderRepository;
 import com.example.orderservice.repository.PaymentRepository;
+import com.example.orderservice.service.OrderCache;
+import com.example.orderservice.service.PaymentProcessor;
 import com.example.orderservice.service.PaymentService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,12 +30,15 @@ class PaymentServiceTest {
 
     @Mock PaymentRepository paymentRepository;
     @Mock OrderRepository orderRepository;
+    @Spy OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), DataSize.ofMegabytes(1), Duration.ZERO);
+    @Mock PaymentProcessor paymentProcessor;
+    @Mock ApplicationEventPublisher events;
     @InjectMocks PaymentService paymentService;
 
-    private Order placedOrder(Long id, double amount) {
+    private Order placedOrder(Long id, String amount) {
         Order o = new Order();
         o.setId(id);
-        o.setTotalAmount(amount);
+        o.setTotalAmount(Money.parse(amount));
         o.setStatus(Order.OrderStatus.PLACED);
         return o;
     }
@@ -35,39 +46,55 @@ class PaymentServiceTest {
     @Test
     @DisplayName("createPayment succeeds for valid input")
     void createPayment_success() {
-        Order order = placedOrder(1L, 100.0);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
-        when(paymentRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        Order order = placedOrder(1L, "100.0");
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
 
         PaymentRequest req = new PaymentRequest();
         req.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
-        req.setAmount(100.0);
+        req.setAmount(Money.parse("100.0"));
 
         Payment result = paymentService.createPayment(1L, req);
         assertEquals(Payment.PaymentStatus.SUCCESS, result.getStatus());
-        verify(paymentRepository).save(any(Payment.class));
+        verify(paymentRepository).saveAndFlush(any(Payment.class));
     }
 
     @Test
     @DisplayName("createPayment throws OrderNotFoundException when order missing")
     void createPayment_orderNotFound() {
-        when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+        when(orderRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
         PaymentRequest req = new PaymentRequest();
-        req.setAmount(100.0);
+        req.setAmount(Money.parse("100.0"));
         req.setPaymentMethod(Payment.PaymentMethod.UPI);
         assertThrows(OrderNotFoundException.class, () -> paymentService.createPayment(99L, req));
     }
 
+    @Test
+    @DisplayName("createPayment checks the order in the database, not a stale cached copy")
+    void createPayment_ignoresCachedOrder() {
+        orderCache.getOrder(1L, id -> Optional.of(placedOrder(id, "100.0")));
+        Order cancelled = placedOrder(1L, "100.0");
+        cancelled.setStatus(Order.OrderStatus.CANCELLED);
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cancelled));
+
+        PaymentRequest req = new PaymentRequest();
+        req.setAmount(Money.parse("100.0"));
+        req.setPaymentMethod(Payment.PaymentMethod.UPI);
+
+        PaymentValidationException ex = assertThrows(PaymentValidationException.class,
+                () -> paymentService.createPayment(1L, req));
+        assertEquals("ORDER_NOT_PLACEABLE", ex.getErrorCode());
+        verify(paymentRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     @DisplayName("createPayment throws PaymentValidationException for amount mismatch")
     void createPayment_amountMismatch() {
-        Order order = placedOrder(1L, 500.0);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
+        Order order = placedOrder(1L, "500.0");
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         PaymentRequest req = new PaymentRequest();
-        req.setAmount(100.0);
+        req.setAmount(Money.parse("100.0"));
         req.setPaymentMethod(Payment.PaymentMethod.UPI);
 
         PaymentValidationException ex = assertThrows(PaymentValidationException.class,
@@ -76,23 +103,76 @@ class PaymentServiceTest {
     }
 
     @Test
-    @DisplayName("createPayment throws PaymentConflictException when payment exists")
+    @DisplayName("createPayment throws PaymentConflictException when the unique order_id insert fails")
     void createPayment_duplicate() {
-        Order order = placedOrder(1L, 100.0);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(paymentRepository.existsByOrderId(1L)).thenReturn(true);
+        Order order = placedOrder(1L, "100.0");
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_payments_order_id"));
 
         PaymentRequest req = new PaymentRequest();
-        req.setAmount(100.0);
+        req.setAmount(Money.parse("100.0"));
         req.setPaymentMethod(Payment.PaymentMethod.DEBIT_CARD);
 
         assertThrows(PaymentConflictException.class, () -> paymentService.createPayment(1L, req));
     }
 
+    @Test
+    @DisplayName("createPayment in async mode stores PENDING and queues after commit")
+    void createPayment_async() {
+        Order order = placedOrder(1L, "100.0");
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(paymentProcessor.isEnabled()).thenReturn(true);
+        when(paymentProcessor.tryReserve()).thenReturn(true);
+
+        PaymentRequest req = new PaymentRequest();
+        req.setAmount(Money.parse("100.0"));
+        req.setPaymentMethod(Payment.PaymentMethod.UPI);
+
+        Payment result = paymentService.createPayment(1L, req);
+        assertEquals(Payment.PaymentStatus.PENDING, result.getStatus());
+        verify(paymentProcessor).submitAfterCommit(result);
+        verify(paymentProcessor, never()).release();
+    }
+
+    @Test
+    @DisplayName("createPayment in async mode frees the reserved slot when the insert fails")
+    void createPayment_asyncInsertFails() {
+        Order order = placedOrder(1L, "100.0");
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.saveAndFlush(any())).thenThrow(new IllegalStateException("connection lost"));
+        when(paymentProcessor.isEnabled()).thenReturn(true);
+        when(paymentProcessor.tryReserve()).thenReturn(true);
+
+        PaymentRequest req = new PaymentRequest();
+        req.setAmount(Money.parse("100.0"));
+        req.setPaymentMethod(Payment.PaymentMethod.UPI);
+
+        assertThrows(IllegalStateException.class, () -> paymentService.createPayment(1L, req));
+        verify(paymentProcessor).release();
+        verify(paymentProcessor, never()).submitAfterCommit(any());
+    }
+
+    @Test
+    @DisplayName("createPayment in async mode rejects before inserting when the queue is full")
+    void createPayment_backpressure() {
+        Order order = placedOrder(1L, "100.0");
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+        when(paymentProcessor.isEnabled()).thenReturn(true);
+        when(paymentProcessor.tryReserve()).thenReturn(false);
+
+        PaymentRequest req = new PaymentRequest();
+        req.setAmount(Money.parse("100.0"));
+        req.setPaymentMethod(Payment.PaymentMethod.UPI);
+
+        assertThrows(PaymentBackpressureException.class, () -> paymentService.createPayment(1L, req));
+        verify(paymentRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     @DisplayName("refundPayment succeeds when payment is SUCCESS")
     void refundPayment_success() {
-        Order order = placedOrder(1L, 100.0);
+        Order order = placedOrder(1L, "100.0");
         Payment payment = new Payment();
         payment.setOrderId(1L);
         payment.setStatus(Payment.PaymentStatus.SUCCESS);
@@ -110,7 +190,7 @@ class PaymentServiceTest {
     @Test
     @DisplayName("refundPayment throws when payment not SUCCESS")
     void refundPayment_notRefundable() {
-        Order order = placedOrder(1L, 100.0);
+        Order order = placedOrder(1L, "100.0");
         Payment payment = new Payment();
         payment.setStatus(Payment.PaymentStatus.REFUNDED);
 
@@ -121,4 +201,24 @@ class PaymentServiceTest {
                 () -> paymentService.refundPayment(1L));
         assertEquals("PAYMENT_NOT_REFUNDABLE", ex.getErrorCode());
     }
+
+    @Test
+    @DisplayName("getPaymentByOrderId loads order status and payment in one query, then serves from the cache")
+    void getPayment_cached() {
+        Order order = placedOrder(1L, "100.0");
+        Payment payment = new Payment();
+        payment.setOrderId(1L);
+        payment.setStatus(Payment.PaymentStatus.SUCCESS);
+
+        when(paymentRepository.findWithOrderStatus(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{order.getStatus(), payment}));
+
+        paymentService.getPaymentByOrderId(1L);
+        Optional<Payment> second = paymentService.getPaymentByOrderId(1L);
+
+        assertSame(payment, second.orElseThrow());
+        verify(paymentRepository, times(1)).findWithOrderStatus(1L);
+        verify(orderRepository, never()).findById(1L);
+        verify(paymentRepository, never()).findByOrderId(1L);
+    }
 }
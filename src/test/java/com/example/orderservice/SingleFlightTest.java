@@ -0,0 +1,74 @@
+package com.example.orderservice;
+
+import com.example.orderservice.service.SingleFlight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("Concurrent loads of one key run the loader once and share its result")
+    void coalescesConcurrentLoads() throws Exception {
+        SingleFlight<Long, String> flights = new SingleFlight<>(Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> flights.load(1L, id -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "order-" + id;
+                })));
+            }
+            while (flights.sharedCount() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("order-1", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+
+        // Zero window: a later call loads again
+        assertEquals("again", flights.load(1L, id -> "again"));
+    }
+
+    @Test
+    @DisplayName("Results are reused within the window until forgotten; failures are not kept")
+    void stalenessWindowAndFailures() {
+        SingleFlight<Long, String> flights = new SingleFlight<>(Duration.ofMinutes(1));
+        assertEquals("first", flights.load(1L, id -> "first"));
+        assertEquals("first", flights.load(1L, id -> "second"));
+        flights.forget(1L);
+        assertEquals("third", flights.load(1L, id -> "third"));
+
+        assertThrows(IllegalStateException.class, () -> flights.load(2L, id -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals("recovered", flights.load(2L, id -> "recovered"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
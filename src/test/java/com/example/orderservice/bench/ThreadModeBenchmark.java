@@ -0,0 +1,149 @@
+package com.example.orderservice.bench;
+
+import com.example.orderservice.OrderServiceApplication;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import jakarta.servlet.Filter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares request throughput and latency of platform-thread vs virtual-thread request handling.
+ * Each request blocks for {@code bench.latencyMs} in a servlet filter to stand in for slow
+ * downstream I/O, which is where the Tomcat thread-pool ceiling shows up.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.orderservice.bench.ThreadModeBenchmark \
+ *     -Dbench.concurrency=1000 -Dbench.requests=20000 -Dbench.latencyMs=50
+ * </pre>
+ */
+public class ThreadModeBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 20000);
+    private static final int LATENCY_MS = Integer.getInteger("bench.latencyMs", 50);
+    private static final int ORDERS = 100;
+
+    public static void main(String[] args) throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        System.out.printf("%n%-10s %12s %10s %10s %10s%n", "mode", "req/s", "p50 ms", "p99 ms", "errors");
+        System.out.println(platform);
+        System.out.println(virtual);
+        if (platform.errors() > 0 || virtual.errors() > 0) {
+            throw new IllegalStateException("Requests answered other than 200; the numbers above do not measure reads");
+        }
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        // As command-line arguments, since builder properties are only defaults and application.properties beats them
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class, SimulatedLatency.class)
+                .profiles(virtualThreads ? "virtual" : "default")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + virtualThreads,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        // One client at full concurrency: rate limits and load shedding would be measured instead
+                        "--admission.enabled=false",
+                        "--logging.level.root=WARN");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            long[] ids = seed(context.getBean(OrderRepository.class));
+            return load(virtualThreads ? "virtual" : "platform", port, ids);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long[] seed(OrderRepository orderRepository) {
+        long[] ids = new long[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setCustomerName("Bench " + i);
+            order.setItems("Widget");
+            order.setTotalAmount(Money.parse("10.0"));
+            ids[i] = orderRepository.save(order).getId();
+        }
+        return ids;
+    }
+
+    private static Result load(String mode, int port, long[] ids) throws Exception {
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).connectTimeout(Duration.ofSeconds(10)).build()) {
+            long start = System.nanoTime();
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < CONCURRENCY; c++) {
+                workers.add(clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < REQUESTS) {
+                        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/" + id))
+                                .timeout(Duration.ofSeconds(30)).build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            return new Result(mode, REQUESTS * 1e9 / elapsed,
+                    latencies[REQUESTS / 2] / 1e6, latencies[(int) (REQUESTS * 0.99)] / 1e6, errors.get());
+        }
+    }
+
+    private record Result(String mode, double throughput, double p50, double p99, int errors) {
+        @Override
+        public String toString() {
+            return String.format("%-10s %12.0f %10.1f %10.1f %10d", mode, throughput, p50, p99, errors);
+        }
+    }
+
+    @Configuration
+    static class SimulatedLatency {
+
+        @Bean
+        Filter simulatedDownstreamLatency() {
+            return (request, response, chain) -> {
+                try {
+                    Thread.sleep(LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            };
+        }
+    }
+}